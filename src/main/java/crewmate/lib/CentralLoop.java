@@ -0,0 +1,257 @@
+package crewmate.lib;
+
+import crewmate.lib.CrewmateCentral.Phase;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * The components run by {@link CrewmateCentral}, with their phase ordering, timing, histograms and
+ * loop budget. Kept apart from the subsystem so it can be run without the command scheduler
+ */
+final class CentralLoop {
+  static final long[] BUCKET_BOUNDS_MICROS = {
+    10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, Long.MAX_VALUE
+  };
+  private static final double DEFAULT_BUDGET_MS = 5.0;
+  private static final int DEFAULT_HISTOGRAM_PERIOD = 50; // loops, 1 s at 50 Hz
+
+  private final String key;
+  private final LongSupplier nanoClock;
+
+  private Phase[] phases = new Phase[8];
+  private Runnable[] work = new Runnable[8];
+  private String[] names = new String[8];
+  private String[] timeKeys = new String[8];
+  private String[] histogramKeys = new String[8];
+  private long[][] histograms = new long[8][];
+  private long[] lastNanos = new long[8];
+  private long[] maxNanos = new long[8];
+  private int count = 0;
+
+  private double budgetMs = DEFAULT_BUDGET_MS;
+  private int histogramPeriod = DEFAULT_HISTOGRAM_PERIOD;
+  private long loops = 0;
+  private long overBudgetCount = 0;
+  private long lastLoopStart = -1;
+  private long lastTotalNanos = 0;
+
+  /**
+   * Creates an empty loop
+   *
+   * @param key prefix of the logged timing keys
+   * @param nanoClock time source in nanoseconds
+   */
+  CentralLoop(String key, LongSupplier nanoClock) {
+    this.key = key;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Adds a component
+   *
+   * @param phase phase the component runs in
+   * @param name name the component's timing is logged under
+   * @param component periodic work
+   * @throws IllegalArgumentException if the name is already used
+   */
+  synchronized void add(Phase phase, String name, Runnable component) {
+    for (int i = 0; i < count; i++) {
+      if (names[i].equals(name)) {
+        throw new IllegalArgumentException("Component " + name + " already added");
+      }
+    }
+    if (count == work.length) grow();
+
+    // Insert after the last component of the same or an earlier phase
+    int index = count;
+    while (index > 0 && phases[index - 1].compareTo(phase) > 0) index--;
+    shift(index);
+
+    phases[index] = phase;
+    work[index] = component;
+    names[index] = name;
+    timeKeys[index] = key + "/" + name + "/Ms";
+    histogramKeys[index] = key + "/" + name + "/Histogram";
+    histograms[index] = new long[BUCKET_BOUNDS_MICROS.length];
+    lastNanos[index] = 0;
+    maxNanos[index] = 0;
+    count++;
+  }
+
+  private void grow() {
+    int size = work.length * 2;
+    phases = Arrays.copyOf(phases, size);
+    work = Arrays.copyOf(work, size);
+    names = Arrays.copyOf(names, size);
+    timeKeys = Arrays.copyOf(timeKeys, size);
+    histogramKeys = Arrays.copyOf(histogramKeys, size);
+    histograms = Arrays.copyOf(histograms, size);
+    lastNanos = Arrays.copyOf(lastNanos, size);
+    maxNanos = Arrays.copyOf(maxNanos, size);
+  }
+
+  private void shift(int index) {
+    int moved = count - index;
+    System.arraycopy(phases, index, phases, index + 1, moved);
+    System.arraycopy(work, index, work, index + 1, moved);
+    System.arraycopy(names, index, names, index + 1, moved);
+    System.arraycopy(timeKeys, index, timeKeys, index + 1, moved);
+    System.arraycopy(histogramKeys, index, histogramKeys, index + 1, moved);
+    System.arraycopy(histograms, index, histograms, index + 1, moved);
+    System.arraycopy(lastNanos, index, lastNanos, index + 1, moved);
+    System.arraycopy(maxNanos, index, maxNanos, index + 1, moved);
+  }
+
+  /**
+   * Adds a component unless one with the same name was already added
+   *
+   * @param phase phase the component runs in
+   * @param name name the component's timing is logged under
+   * @param component periodic work
+   * @return true if the component was added
+   */
+  synchronized boolean addOnce(Phase phase, String name, Runnable component) {
+    for (int i = 0; i < count; i++) {
+      if (names[i].equals(name)) return false;
+    }
+    add(phase, name, component);
+    return true;
+  }
+
+  /**
+   * Sets the time all components together should fit in each loop
+   *
+   * @param milliseconds loop budget, defaults to 5 ms
+   */
+  synchronized void setBudgetMs(double milliseconds) {
+    this.budgetMs = milliseconds;
+  }
+
+  /**
+   * Sets how often the histograms are logged
+   *
+   * @param loops loops between histogram logs, defaults to 50
+   */
+  synchronized void setHistogramPeriod(int loops) {
+    this.histogramPeriod = Math.max(loops, 1);
+  }
+
+  /** Runs every component once, timing each */
+  synchronized void run() {
+    long loopStart = nanoClock.getAsLong();
+    long total = 0;
+    long start = loopStart;
+    for (int i = 0; i < count; i++) {
+      work[i].run();
+      long end = nanoClock.getAsLong();
+      long elapsed = end - start;
+      start = end;
+
+      total += elapsed;
+      lastNanos[i] = elapsed;
+      if (elapsed > maxNanos[i]) maxNanos[i] = elapsed;
+      histograms[i][bucket(elapsed)]++;
+    }
+    loops++;
+
+    boolean overBudget = total * 1E-6 > budgetMs;
+    if (overBudget) overBudgetCount++;
+    publish(loopStart, total, overBudget);
+    lastLoopStart = loopStart;
+    lastTotalNanos = total;
+  }
+
+  private static int bucket(long nanos) {
+    long micros = nanos / 1000;
+    int b = 0;
+    while (micros > BUCKET_BOUNDS_MICROS[b]) b++;
+    return b;
+  }
+
+  private void publish(long loopStart, long total, boolean overBudget) {
+    for (int i = 0; i < count; i++) {
+      Logger.recordOutput(timeKeys[i], lastNanos[i] * 1E-6);
+    }
+    Logger.recordOutput(key + "/TotalMs", total * 1E-6);
+    Logger.recordOutput(key + "/OverBudget", overBudget);
+    Logger.recordOutput(key + "/OverBudgetCount", overBudgetCount);
+    if (lastLoopStart >= 0) {
+      // Time between runs not spent in Crewmate components during the previous loop
+      long period = loopStart - lastLoopStart;
+      Logger.recordOutput(key + "/LoopPeriodMs", period * 1E-6);
+      Logger.recordOutput(key + "/OtherMs", (period - lastTotalNanos) * 1E-6);
+    }
+    if (loops % histogramPeriod == 0) {
+      for (int i = 0; i < count; i++) {
+        Logger.recordOutput(histogramKeys[i], histograms[i]);
+      }
+    }
+  }
+
+  /** Clears every histogram, maximum and the over budget count */
+  synchronized void resetStatistics() {
+    for (int i = 0; i < count; i++) {
+      Arrays.fill(histograms[i], 0);
+      maxNanos[i] = 0;
+    }
+    overBudgetCount = 0;
+  }
+
+  synchronized int size() {
+    return count;
+  }
+
+  /**
+   * Name of a component, components are indexed in run order
+   *
+   * @param index component index
+   * @return name
+   */
+  synchronized String getName(int index) {
+    return names[index];
+  }
+
+  synchronized Phase getPhase(int index) {
+    return phases[index];
+  }
+
+  /**
+   * Time a component took in the last loop
+   *
+   * @param index component index
+   * @return milliseconds
+   */
+  synchronized double getLastMs(int index) {
+    return lastNanos[index] * 1E-6;
+  }
+
+  /**
+   * Longest time a component has taken since the statistics were reset
+   *
+   * @param index component index
+   * @return milliseconds
+   */
+  synchronized double getMaxMs(int index) {
+    return maxNanos[index] * 1E-6;
+  }
+
+  /**
+   * Copies a component's histogram, bucket {@code b} counts runs no longer than {@link
+   * #BUCKET_BOUNDS_MICROS}{@code [b]}
+   *
+   * @param index component index
+   * @param out array of at least {@link #BUCKET_BOUNDS_MICROS} length to fill
+   */
+  synchronized void getHistogram(int index, long[] out) {
+    System.arraycopy(histograms[index], 0, out, 0, BUCKET_BOUNDS_MICROS.length);
+  }
+
+  synchronized long getOverBudgetCount() {
+    return overBudgetCount;
+  }
+
+  synchronized long getLoopCount() {
+    return loops;
+  }
+}
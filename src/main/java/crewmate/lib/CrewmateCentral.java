@@ -0,0 +1,236 @@
+package crewmate.lib;
+
+import crewmate.lib.motor.MotorGroup;
+import crewmate.lib.motor.MotorHealth;
+import crewmate.lib.motor.RateLimitedMotor;
+import crewmate.lib.statemachines.machine.StateMachine;
+import crewmate.lib.util.ToggleGroup;
+import crewmate.lib.util.TunableRegistry;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+/**
+ * One subsystem that runs the periodic work of every Crewmate component
+ *
+ * <p>Components are run in a fixed {@link Phase} order, and in the order they were added within a
+ * phase. Each run is timed and counted into a preallocated histogram per component, so timing does
+ * not allocate. Every loop the time of each component, the total Crewmate time, the full loop
+ * period and whether the total went over the loop budget are logged to AdvantageKit under {@code
+ * CrewmateCentral/}, and the histograms are logged once every {@link #setHistogramPeriod(int)}
+ * loops. The components and their timing are kept by a {@link CentralLoop}.
+ *
+ * <pre>
+ * CrewmateCentral central = CrewmateCentral.getInstance();
+ * central.addMotorGroup("Drive", driveMotors);
+ * central.addTunables();
+ * central.addStateMachine(intakeMachine);
+ * central.addToggleGroup("Operator", toggles);
+ * central.addMotorHealth();
+ * </pre>
+ */
+public final class CrewmateCentral extends SubsystemBase {
+  private static final String KEY = "CrewmateCentral";
+
+  /** Order components run in each loop */
+  public enum Phase {
+    /** Refresh sensors and motor telemetry */
+    INPUTS,
+    /** Apply changed tunables */
+    TUNABLES,
+    /** Force state machine transitions */
+    STATE_MACHINES,
+    /** Run toggle actions */
+    TOGGLES,
+    /** Send held motor outputs */
+    OUTPUTS,
+    /** Publish diagnostics */
+    TELEMETRY
+  }
+
+  private static CrewmateCentral instance;
+
+  private final CentralLoop loop = new CentralLoop(KEY, System::nanoTime);
+
+  private CrewmateCentral() {
+    super(KEY);
+  }
+
+  /**
+   * Gets the subsystem, registering it with the command scheduler on first use
+   *
+   * @return the subsystem
+   */
+  public static synchronized CrewmateCentral getInstance() {
+    if (instance == null) {
+      instance = new CrewmateCentral();
+    }
+    return instance;
+  }
+
+  /**
+   * Adds a component
+   *
+   * @param phase phase the component runs in
+   * @param name name the component's timing is logged under
+   * @param component periodic work
+   * @throws IllegalArgumentException if the name is already used
+   */
+  public void add(Phase phase, String name, Runnable component) {
+    loop.add(phase, name, component);
+  }
+
+  /**
+   * Refreshes a motor group in the inputs phase
+   *
+   * @param name name of the group
+   * @param group motors to refresh
+   */
+  public void addMotorGroup(String name, MotorGroup group) {
+    add(Phase.INPUTS, "MotorGroup/" + name, group::refresh);
+  }
+
+  /**
+   * Polls the {@link TunableRegistry} in the tunables phase, taking over from any scheduler binding
+   * so tunables are polled once per loop. Only the first call has an effect
+   */
+  public void addTunables() {
+    TunableRegistry registry = TunableRegistry.getInstance();
+    registry.setManaged(true);
+    loop.addOnce(Phase.TUNABLES, "Tunables", registry::update);
+  }
+
+  /**
+   * Updates a state machine's forced transitions
+   *
+   * @param machine state machine
+   */
+  public void addStateMachine(StateMachine machine) {
+    String name = "StateMachine/" + machine.getMachineName();
+    add(Phase.STATE_MACHINES, name, machine::updateAllTransitions);
+  }
+
+  /**
+   * Runs a toggle group, taking it off the command scheduler so it is only updated here
+   *
+   * @param name name of the group
+   * @param group toggles to update
+   */
+  public void addToggleGroup(String name, ToggleGroup group) {
+    CommandScheduler.getInstance().unregisterSubsystem(group);
+    add(Phase.TOGGLES, "Toggles/" + name, group::update);
+  }
+
+  /**
+   * Flushes a rate limited motor's held output in the outputs phase
+   *
+   * @param name name of the motor
+   * @param motor motor to flush
+   */
+  public void addRateLimitedMotor(String name, RateLimitedMotor motor) {
+    add(Phase.OUTPUTS, "Flush/" + name, motor::flush);
+  }
+
+  /** Publishes every {@link MotorHealth} as telemetry, only the first call has an effect */
+  public void addMotorHealth() {
+    loop.addOnce(Phase.TELEMETRY, "MotorHealth", MotorHealth::publishAll);
+  }
+
+  /**
+   * Sets the time all components together should fit in each loop
+   *
+   * @param milliseconds loop budget, defaults to 5 ms
+   */
+  public void setBudgetMs(double milliseconds) {
+    loop.setBudgetMs(milliseconds);
+  }
+
+  /**
+   * Sets how often the histograms are logged
+   *
+   * @param loops loops between histogram logs, defaults to 50
+   */
+  public void setHistogramPeriod(int loops) {
+    loop.setHistogramPeriod(loops);
+  }
+
+  @Override
+  public void periodic() {
+    run();
+  }
+
+  /** Runs every component once, timing each. Called by {@link #periodic()} */
+  public void run() {
+    loop.run();
+  }
+
+  /** Clears every histogram, maximum and the over budget count */
+  public void resetStatistics() {
+    loop.resetStatistics();
+  }
+
+  public int size() {
+    return loop.size();
+  }
+
+  /**
+   * Name of a component, components are indexed in run order
+   *
+   * @param index component index
+   * @return name
+   */
+  public String getName(int index) {
+    return loop.getName(index);
+  }
+
+  public Phase getPhase(int index) {
+    return loop.getPhase(index);
+  }
+
+  /**
+   * Time a component took in the last loop
+   *
+   * @param index component index
+   * @return milliseconds
+   */
+  public double getLastMs(int index) {
+    return loop.getLastMs(index);
+  }
+
+  /**
+   * Longest time a component has taken since the statistics were reset
+   *
+   * @param index component index
+   * @return milliseconds
+   */
+  public double getMaxMs(int index) {
+    return loop.getMaxMs(index);
+  }
+
+  /**
+   * Copies a component's histogram, bucket {@code b} counts runs no longer than {@link
+   * #getBucketBoundsMicros()}{@code [b]}
+   *
+   * @param index component index
+   * @param out array of at least {@link #getBucketBoundsMicros()} length to fill
+   */
+  public void getHistogram(int index, long[] out) {
+    loop.getHistogram(index, out);
+  }
+
+  /**
+   * Upper bounds of the histogram buckets, the last bucket is unbounded
+   *
+   * @return bounds in microseconds
+   */
+  public static long[] getBucketBoundsMicros() {
+    return CentralLoop.BUCKET_BOUNDS_MICROS.clone();
+  }
+
+  public long getOverBudgetCount() {
+    return loop.getOverBudgetCount();
+  }
+
+  public long getLoopCount() {
+    return loop.getLoopCount();
+  }
+}
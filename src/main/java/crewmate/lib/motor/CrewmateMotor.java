@@ -43,6 +43,43 @@ public interface CrewmateMotor {
    */
   public double getCurrent();
 
+  /**
+   * Refreshes any cached telemetry so that following reads come from one consistent snapshot. Does
+   * nothing for motors that read directly from hardware
+   */
+  public default void refreshSignals() {}
+
+  /**
+   * Starts queueing every sample taken of this motor, for consumers such as odometry that need all
+   * samples between loops. Samples are added when the motor is refreshed by a {@link MotorGroup}
+   * or {@link MotorTelemetrySampler}. Motors that do not keep their own queue return null, and
+   * {@link MotorGroup#enableSampleQueue(int, int)} queues their samples instead
+   *
+   * @param capacity number of samples held before the oldest are overwritten
+   * @return the sample queue, the existing one if already enabled, null if not supported
+   */
+  public default MotorSampleQueue enableSampleQueue(int capacity) {
+    return null;
+  }
+
+  /**
+   * Gets the sample queue enabled by {@link #enableSampleQueue(int)}
+   *
+   * @return sample queue, null if not enabled
+   */
+  public default MotorSampleQueue getSampleQueue() {
+    return null;
+  }
+
+  /**
+   * Gets the timing and error counters of this motor
+   *
+   * @return health counters, null for motors that are not instrumented
+   */
+  public default MotorHealth getHealth() {
+    return null;
+  }
+
   /**
    * Base Method to get the type of motor being used
    *
@@ -71,6 +108,19 @@ public interface CrewmateMotor {
    */
   public void setD(double d);
 
+  /**
+   * Sets all three gains, in a single config write where the motor controller allows it
+   *
+   * @param p proportional gain
+   * @param i integral gain
+   * @param d derivative gain
+   */
+  public default void setPID(double p, double i, double d) {
+    setP(p);
+    setI(i);
+    setD(d);
+  }
+
   /**
    * Gets the current Proportional gain value
    *
@@ -107,6 +157,27 @@ public interface CrewmateMotor {
    */
   public double getSetpoint();
 
+  /**
+   * Sets the limits of the motion profile followed by {@link
+   * MotorConfig.ControlType#PROFILED_POSITION} setpoints. Does nothing by default, for motors
+   * without motion profiles
+   *
+   * @param maxVelocity cruise velocity, in position units per second
+   * @param maxAcceleration acceleration, in position units per second squared
+   */
+  public default void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {}
+
+  /**
+   * Copies the setpoint, its control type and the time it was set into a snapshot without
+   * blocking, for use from telemetry threads. Motors that do not track these only fill in the
+   * setpoint
+   *
+   * @param out snapshot to fill
+   */
+  public default void readSetpoint(SetpointStore.Snapshot out) {
+    out.set(getSetpoint(), null, Double.NaN);
+  }
+
   /**
    * Sets a current limit on the motor
    *
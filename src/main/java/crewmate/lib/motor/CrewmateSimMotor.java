@@ -0,0 +1,376 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+/**
+ * Simulated motor backed by a WPILib {@link DCMotorSim}
+ *
+ * <p>Mirrors the behaviour of the hardware implementations closely enough to run robot code
+ * headless: the onboard closed loop is emulated for every {@link ControlType}, current limits and
+ * coast mode act on the simulated voltage, and conversion factors are applied the same way the
+ * SPARK MAX applies them (position in motor rotations, velocity in motor RPM, both scaled).
+ *
+ * <p>Time only advances through {@link #update(double)}, so a test or benchmark can step the
+ * simulation as fast as the host allows, and repeated runs are deterministic. Each update is split
+ * into substeps of the emulated controller period.
+ */
+public class CrewmateSimMotor implements CrewmateMotor {
+  private static final double NOMINAL_VOLTAGE = 12.0;
+  private static final double DEFAULT_GEARING = 1.0;
+  private static final double DEFAULT_MOI = 0.001; // kg m^2
+  private static final double DEFAULT_CONTROLLER_PERIOD = 0.001; // 1 kHz, as on the SPARK MAX
+
+  private enum OutputMode {
+    DUTYCYCLE,
+    VOLTAGE,
+    CLOSED_LOOP
+  }
+
+  private final DCMotorSim sim;
+  private final DCMotor gearbox;
+  private final double gearing;
+  private final SetpointStore setpoint = new SetpointStore();
+  private volatile MotorSampleQueue sampleQueue;
+
+  private volatile double lastPosition = 0.0;
+  private volatile double lastVelocity = 0.0;
+
+  private volatile OutputMode outputMode = OutputMode.DUTYCYCLE;
+  private volatile ControlType controlType = ControlType.DUTYCYCLE;
+  private volatile double openLoopOutput = 0.0;
+
+  private final SoftwarePIDController pid =
+      new SoftwarePIDController(0.0, 0.0, 0.0, DEFAULT_CONTROLLER_PERIOD);
+  private TrapezoidProfile profile = null;
+  private TrapezoidProfile.State profileState = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State profileGoal = new TrapezoidProfile.State();
+
+  private volatile double currentLimit = Double.POSITIVE_INFINITY;
+  private volatile boolean brakeMode = false;
+  private double positionConversionFactor = 1.0;
+  private double velocityConversionFactor = 1.0;
+
+  private double controllerPeriod = DEFAULT_CONTROLLER_PERIOD;
+  private double appliedVoltage = 0.0;
+  private double simTime = 0.0;
+
+  /**
+   * Creates a simulated motor with a custom mechanism model
+   *
+   * @param config motor configuration, applied as it would be on hardware
+   * @param gearbox motor model, for example {@code DCMotor.getNEO(1)}
+   * @param gearing reduction between motor and mechanism (motor rotations per mechanism rotation)
+   * @param jKgMetersSquared moment of inertia of the mechanism
+   */
+  public CrewmateSimMotor(
+      MotorConfig config, DCMotor gearbox, double gearing, double jKgMetersSquared) {
+    this.gearbox = gearbox;
+    this.gearing = gearing;
+    this.sim =
+        new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(gearbox, jKgMetersSquared, gearing), gearbox);
+    pid.setAntiWindup(false); // the onboard controllers accumulate without clamping
+
+    initializeController(config);
+  }
+
+  /**
+   * Creates a simulated motor driving a light load directly, using a NEO for brushless
+   * configurations and a CIM for brushed ones
+   *
+   * @param config motor configuration, applied as it would be on hardware
+   */
+  public CrewmateSimMotor(MotorConfig config) {
+    this(
+        config,
+        config.motorType == MotorConfig.Type.BRUSHLESS ? DCMotor.getNEO(1) : DCMotor.getCIM(1),
+        DEFAULT_GEARING,
+        DEFAULT_MOI);
+  }
+
+  private void initializeController(MotorConfig config) {
+    if (config.has(MotorConfig.P)) setP(config.p);
+    if (config.has(MotorConfig.I)) setI(config.i);
+    if (config.has(MotorConfig.D)) setD(config.d);
+    if (config.has(MotorConfig.CURRENT_LIMIT)) setCurrentLimit(config.currentLimit);
+    if (config.has(MotorConfig.POSITION_CONVERSION_FACTOR)) {
+      positionConversionFactor = config.positionConversionFactor;
+    }
+    if (config.has(MotorConfig.VELOCITY_CONVERSION_FACTOR)) {
+      velocityConversionFactor = config.velocityConversionFactor;
+    }
+    setBrakeMode(config.brakeMode);
+  }
+
+  /**
+   * Sets how often the emulated onboard controller runs
+   *
+   * @param seconds controller period, defaults to 1 ms
+   */
+  public void setControllerPeriod(double seconds) {
+    if (seconds <= 0) {
+      throw new IllegalArgumentException("Controller period must be positive");
+    }
+    this.controllerPeriod = seconds;
+    pid.setPeriod(seconds);
+  }
+
+  /**
+   * Advances the simulation, independent of wall clock time
+   *
+   * @param dtSeconds simulated time to advance by
+   */
+  public synchronized void update(double dtSeconds) {
+    double remaining = dtSeconds;
+    while (remaining > 1E-12) {
+      double step = Math.min(controllerPeriod, remaining);
+      appliedVoltage = calculateVoltage(step);
+      sim.setInputVoltage(appliedVoltage);
+      sim.update(step);
+      remaining -= step;
+    }
+    simTime += dtSeconds;
+  }
+
+  /**
+   * Advances the simulation by a number of equal steps
+   *
+   * @param steps number of steps
+   * @param dtSeconds simulated time per step
+   */
+  public void update(int steps, double dtSeconds) {
+    for (int n = 0; n < steps; n++) {
+      update(dtSeconds);
+    }
+  }
+
+  private double calculateVoltage(double dt) {
+    double motorSpeed = sim.getAngularVelocityRadPerSec() * gearing;
+
+    double volts =
+        switch (outputMode) {
+          case DUTYCYCLE -> openLoopOutput * NOMINAL_VOLTAGE;
+          case VOLTAGE -> openLoopOutput;
+          case CLOSED_LOOP -> closedLoopVoltage(dt, motorSpeed);
+        };
+
+    if (volts == 0.0 && !brakeMode) {
+      // coast: match back EMF so no current flows
+      return motorSpeed / gearbox.KvRadPerSecPerVolt;
+    }
+
+    double current = gearbox.getCurrent(motorSpeed, volts);
+    if (Math.abs(current) > currentLimit) {
+      double limitedTorque = gearbox.getTorque(Math.copySign(currentLimit, current));
+      volts = gearbox.getVoltage(limitedTorque, motorSpeed);
+    }
+    return MathUtil.clamp(volts, -NOMINAL_VOLTAGE, NOMINAL_VOLTAGE);
+  }
+
+  private double closedLoopVoltage(double dt, double motorSpeed) {
+    double target = setpoint.get();
+    return switch (controlType) {
+      case POSITION -> pidDutyCycle(readPosition(), target, dt) * NOMINAL_VOLTAGE;
+      case VELOCITY -> pidDutyCycle(readVelocity(), target, dt) * NOMINAL_VOLTAGE;
+      case CURRENT -> gearbox.getVoltage(gearbox.getTorque(target), motorSpeed);
+      case DUTYCYCLE -> target * NOMINAL_VOLTAGE;
+      case PROFILED_POSITION -> {
+        if (profile == null) {
+          // No constraints yet: go straight to the goal, and keep the profile start current
+          profileState.position = readPosition();
+          profileState.velocity = readPositionRate();
+          yield pidDutyCycle(profileState.position, profileGoal.position, dt) * NOMINAL_VOLTAGE;
+        }
+        profileState = profile.calculate(dt, profileState, profileGoal);
+        yield pidDutyCycle(readPosition(), profileState.position, dt) * NOMINAL_VOLTAGE;
+      }
+    };
+  }
+
+  private double pidDutyCycle(double measurement, double target, double dt) {
+    // Only the last substep of an update can be shorter than the controller period
+    return dt == controllerPeriod
+        ? pid.calculate(measurement, target)
+        : pid.calculate(measurement, target, dt);
+  }
+
+  private void resetClosedLoop() {
+    pid.reset();
+  }
+
+  private double readPosition() {
+    return sim.getAngularPositionRotations() * gearing * positionConversionFactor;
+  }
+
+  /** Position units per second, which differ from velocity units when the factors do */
+  private double readPositionRate() {
+    return sim.getAngularVelocityRPM() / 60.0 * gearing * positionConversionFactor;
+  }
+
+  private double readVelocity() {
+    return sim.getAngularVelocityRPM() * gearing * velocityConversionFactor;
+  }
+
+  @Override
+  public synchronized void set(double throttle) {
+    outputMode = OutputMode.DUTYCYCLE;
+    openLoopOutput = MathUtil.clamp(throttle, -1.0, 1.0);
+  }
+
+  @Override
+  public synchronized void setVoltage(double voltage) {
+    outputMode = OutputMode.VOLTAGE;
+    openLoopOutput = voltage;
+  }
+
+  @Override
+  public synchronized double getPosition() {
+    lastPosition = readPosition();
+    return lastPosition;
+  }
+
+  @Override
+  public synchronized double getVelocity() {
+    lastVelocity = readVelocity();
+    return lastVelocity;
+  }
+
+  @Override
+  public synchronized double getCurrent() {
+    return Math.abs(sim.getCurrentDrawAmps());
+  }
+
+  /**
+   * Gets the voltage applied to the simulated motor during the last controller step
+   *
+   * @return applied voltage
+   */
+  public synchronized double getAppliedVoltage() {
+    return appliedVoltage;
+  }
+
+  /**
+   * Gets the total simulated time
+   *
+   * @return seconds simulated since construction
+   */
+  public synchronized double getSimTime() {
+    return simTime;
+  }
+
+  /**
+   * Directly sets the mechanism state, for example to start a test from a known position
+   *
+   * @param position position, in units provided through conversion factors
+   * @param velocity velocity, in units provided through conversion factors
+   */
+  public synchronized void setState(double position, double velocity) {
+    sim.setState(
+        position / (positionConversionFactor * gearing) * 2.0 * Math.PI,
+        velocity / (velocityConversionFactor * gearing) * 2.0 * Math.PI / 60.0);
+    resetClosedLoop();
+    profileState = new TrapezoidProfile.State(readPosition(), readPositionRate());
+  }
+
+  @Override
+  public Controller getControllerType() {
+    return Controller.SIM;
+  }
+
+  @Override
+  public synchronized void setP(double p) {
+    pid.setP(p);
+  }
+
+  @Override
+  public synchronized void setI(double i) {
+    pid.setI(i);
+  }
+
+  @Override
+  public synchronized void setD(double d) {
+    pid.setD(d);
+  }
+
+  @Override
+  public synchronized void setPID(double p, double i, double d) {
+    pid.setPID(p, i, d);
+  }
+
+  @Override
+  public synchronized double getP() {
+    return pid.getP();
+  }
+
+  @Override
+  public synchronized double getI() {
+    return pid.getI();
+  }
+
+  @Override
+  public synchronized double getD() {
+    return pid.getD();
+  }
+
+  @Override
+  public synchronized void setSetpoint(double setpoint, ControlType controlType) {
+    if (outputMode != OutputMode.CLOSED_LOOP || this.controlType != controlType) {
+      resetClosedLoop();
+      if (controlType == ControlType.PROFILED_POSITION) {
+        // Start the profile from the current state, later goals continue the same profile
+        profileState = new TrapezoidProfile.State(readPosition(), readPositionRate());
+      }
+    }
+    profileGoal.position = setpoint;
+    this.setpoint.set(setpoint, controlType, simTime);
+    this.controlType = controlType;
+    this.outputMode = OutputMode.CLOSED_LOOP;
+  }
+
+  /**
+   * Profiled setpoints follow a WPILib trapezoid profile stepped with the controller period. Until
+   * constraints are set they are treated as plain position setpoints
+   */
+  @Override
+  public synchronized void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {
+    profile = new TrapezoidProfile(new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration));
+  }
+
+  @Override
+  public double getSetpoint() {
+    return setpoint.get();
+  }
+
+  @Override
+  public void readSetpoint(SetpointStore.Snapshot out) {
+    setpoint.read(out);
+  }
+
+  @Override
+  public synchronized MotorSampleQueue enableSampleQueue(int capacity) {
+    if (sampleQueue == null) {
+      sampleQueue = new MotorSampleQueue(capacity);
+    }
+    return sampleQueue;
+  }
+
+  @Override
+  public MotorSampleQueue getSampleQueue() {
+    return sampleQueue;
+  }
+
+  @Override
+  public void setCurrentLimit(int limit) {
+    this.currentLimit = limit;
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    this.brakeMode = brake;
+  }
+}
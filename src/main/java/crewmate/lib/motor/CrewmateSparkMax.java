@@ -1,19 +1,43 @@
 package crewmate.lib.motor;
 
+import com.revrobotics.CANSparkBase.FaultID;
 import com.revrobotics.CANSparkBase.IdleMode;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 import crewmate.lib.motor.MotorConfig.ControlType;
+import edu.wpi.first.wpilibj.Timer;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
-
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleSupplier;
+
+/**
+ * CrewmateMotor implementation for the REV SPARK MAX
+ *
+ * <p>Construction blocks on CAN while the controller is configured. Each instance only talks to its
+ * own controller, so many can be constructed in parallel from different threads.
+ */
 public class CrewmateSparkMax implements CrewmateMotor {
+  /** How the controller is configured on construction */
+  public enum StartupMode {
+    /** Restore factory defaults, write every parameter and burn flash */
+    FACTORY_RESET,
+    /**
+     * Read back each parameter, write only those that differ from the config, and burn flash only
+     * if something changed. Parameters not managed by the config keep their flashed values.
+     */
+    SKIP_UNCHANGED
+  }
+
   private final CANSparkMax controller;
   private final RelativeEncoder encoder;
   private final SparkPIDController pid;
-  private final AtomicReference<Double> setpoint; // Thread-safe reference to the setpoint
+  private final SetpointStore setpoint = new SetpointStore();
+  private volatile MotorSampleQueue sampleQueue;
+  private final MotorHealth health;
 
   private volatile double lastPosition = 0.0;
   private volatile double lastVelocity = 0.0;
@@ -22,8 +46,25 @@ public class CrewmateSparkMax implements CrewmateMotor {
   private static final int DEFAULT_CURRENT_LIMIT = 30;
   private static final double DEFAULT_RAMP_RATE = 0.2;
   private static final int DEFAULT_ENCODER_AVERAGE_DEPTH = 2;
+  private static final double PARAMETER_TOLERANCE = 1E-6; // Parameters are stored as floats
+
+  private final StartupMode startupMode;
+  private boolean parametersChanged = false;
+  private REVLibError startupError = REVLibError.kOk;
 
   public CrewmateSparkMax(MotorConfig config) {
+    this(config, StartupMode.FACTORY_RESET);
+  }
+
+  /**
+   * Creates a new CrewmateSparkMax
+   *
+   * @param config motor configuration
+   * @param startupMode how to bring the controller's stored parameters in line with the config
+   */
+  public CrewmateSparkMax(MotorConfig config, StartupMode startupMode) {
+    long start = MotorHealth.start();
+    health = new MotorHealth("SparkMax/" + config.canID);
     controller =
         new CANSparkMax(
             config.canID,
@@ -33,11 +74,14 @@ public class CrewmateSparkMax implements CrewmateMotor {
 
     encoder = controller.getEncoder();
     pid = controller.getPIDController();
-    setpoint = new AtomicReference<>(0.0);
+    this.startupMode = startupMode;
 
-    initializeController(config);
     configureController();
+    initializeController(config);
     applyOptimizedSettings();
+
+    health.recordConfigApply(start);
+    recordResult(startupError);
   }
 
   // TODO: why not make motorType a bool to prevent unnnecessary imports
@@ -51,32 +95,126 @@ public class CrewmateSparkMax implements CrewmateMotor {
   }
 
   private void initializeController(MotorConfig config) {
-    controller.restoreFactoryDefaults();
-    config.p.ifPresent(this::setP);
-    config.i.ifPresent(this::setI);
-    config.d.ifPresent(this::setD);
-    config.currentLimit.ifPresent(this::setCurrentLimit);
-    controller.setInverted(config.reversed.orElse(false));
-    config.positionConversionFactor.ifPresent(encoder::setPositionConversionFactor);
-    config.velocityConversionFactor.ifPresent(encoder::setVelocityConversionFactor);
-    setBrakeMode(config.brakeMode.orElse(false));
+    if (config.has(MotorConfig.P)) setParameter(pid::getP, config.p, pid::setP);
+    if (config.has(MotorConfig.I)) setParameter(pid::getI, config.i, pid::setI);
+    if (config.has(MotorConfig.D)) setParameter(pid::getD, config.d, pid::setD);
+    // No getter for the smart current limit, so it is always written
+    if (config.has(MotorConfig.CURRENT_LIMIT)) setCurrentLimit(config.currentLimit);
+
+    boolean inverted = config.reversed;
+    setParameter(
+        () -> controller.getInverted() == inverted, () -> controller.setInverted(inverted));
+    if (config.has(MotorConfig.POSITION_CONVERSION_FACTOR)) {
+      setParameter(
+          encoder::getPositionConversionFactor,
+          config.positionConversionFactor,
+          encoder::setPositionConversionFactor);
+    }
+    if (config.has(MotorConfig.VELOCITY_CONVERSION_FACTOR)) {
+      setParameter(
+          encoder::getVelocityConversionFactor,
+          config.velocityConversionFactor,
+          encoder::setVelocityConversionFactor);
+    }
+
+    IdleMode idleMode = config.brakeMode ? IdleMode.kBrake : IdleMode.kCoast;
+    setParameter(
+        () -> controller.getIdleMode() == idleMode, () -> controller.setIdleMode(idleMode));
   }
 
   private void configureController() {
     controller.setCANTimeout(DEFAULT_CAN_TIMEOUT_MS);
-    controller.enableVoltageCompensation(DEFAULT_VOLTAGE_COMPENSATION);
+    if (startupMode == StartupMode.FACTORY_RESET) {
+      recordStartupError(controller.restoreFactoryDefaults());
+    }
+    setParameter(
+        controller::getVoltageCompensationNominalVoltage,
+        DEFAULT_VOLTAGE_COMPENSATION,
+        controller::enableVoltageCompensation);
     controller.setSmartCurrentLimit(DEFAULT_CURRENT_LIMIT);
-    controller.setOpenLoopRampRate(DEFAULT_RAMP_RATE);
-    controller.setClosedLoopRampRate(DEFAULT_RAMP_RATE);
+    setParameter(
+        controller::getOpenLoopRampRate, DEFAULT_RAMP_RATE, controller::setOpenLoopRampRate);
+    setParameter(
+        controller::getClosedLoopRampRate, DEFAULT_RAMP_RATE, controller::setClosedLoopRampRate);
   }
 
   private void applyOptimizedSettings() {
     encoder.setPosition(setpoint.get());
-    encoder.setAverageDepth(DEFAULT_ENCODER_AVERAGE_DEPTH);
+    setParameter(
+        () -> encoder.getAverageDepth() == DEFAULT_ENCODER_AVERAGE_DEPTH,
+        () -> encoder.setAverageDepth(DEFAULT_ENCODER_AVERAGE_DEPTH));
     controller.setCANTimeout(0);
-    controller.burnFlash();
+    if (startupMode == StartupMode.FACTORY_RESET || parametersChanged) {
+      recordStartupError(controller.burnFlash());
+    }
+  }
+
+  private void recordStartupError(REVLibError error) {
+    if (startupError == REVLibError.kOk && error != null) {
+      startupError = error;
+    }
+  }
+
+  /**
+   * Writes a stored parameter during startup. With {@link StartupMode#SKIP_UNCHANGED} the write is
+   * skipped if the controller already holds the value.
+   */
+  private void setParameter(BooleanSupplier unchanged, Runnable write) {
+    if (startupMode == StartupMode.SKIP_UNCHANGED && unchanged.getAsBoolean()) {
+      return;
+    }
+    write.run();
+    parametersChanged = true;
+  }
+
+  private void setParameter(
+      DoubleSupplier current, double desired, DoubleFunction<REVLibError> setter) {
+    setParameter(
+        () ->
+            Math.abs(current.getAsDouble() - desired)
+                <= PARAMETER_TOLERANCE * Math.max(1.0, Math.abs(desired)),
+        () -> recordStartupError(setter.apply(desired)));
+  }
+
+  /**
+   * Whether startup wrote any stored parameter. With {@link StartupMode#SKIP_UNCHANGED}, flash is
+   * only burned when this is true
+   *
+   * @return true if any parameter was written on construction
+   */
+  public boolean startupChangedParameters() {
+    return parametersChanged;
   }
 
+  /**
+   * First error reported by the controller while it was configured on construction
+   *
+   * @return REVLibError.kOk if startup succeeded
+   */
+  public REVLibError getStartupError() {
+    return startupError;
+  }
+
+  /** Counts an error returned by the controller */
+  private void recordResult(REVLibError error) {
+    if (error != null && error != REVLibError.kOk) {
+      health.recordError(error.name(), error == REVLibError.kTimeout);
+    }
+  }
+
+  /**
+   * Counts a read that may not have fresh data. REVLib getters return the last cached status frame
+   * and report no error of their own, so a read is stale while the controller reports a CAN
+   * receive fault
+   */
+  private void checkRead(long start) {
+    health.recordRead(start);
+    if (controller.getFault(FaultID.kCANRX)) {
+      health.recordStale();
+    }
+  }
+
+  @Override
   public void setPID(double p, double i, double d) {
     pid.setP(p);
     pid.setI(i);
@@ -85,29 +223,42 @@ public class CrewmateSparkMax implements CrewmateMotor {
 
   @Override
   public void set(double throttle) {
+    long start = MotorHealth.start();
     controller.set(throttle);
+    health.recordWrite(start);
+    recordResult(controller.getLastError());
   }
 
   @Override
   public void setVoltage(double voltage) {
+    long start = MotorHealth.start();
     controller.setVoltage(voltage);
+    health.recordWrite(start);
+    recordResult(controller.getLastError());
   }
 
   @Override
   public double getPosition() {
+    long start = MotorHealth.start();
     lastPosition = encoder.getPosition();
+    checkRead(start);
     return lastPosition;
   }
 
   @Override
   public double getVelocity() {
+    long start = MotorHealth.start();
     lastVelocity = encoder.getVelocity();
+    checkRead(start);
     return lastVelocity;
   }
 
   @Override
   public double getCurrent() {
-    return controller.getOutputCurrent();
+    long start = MotorHealth.start();
+    double current = controller.getOutputCurrent();
+    checkRead(start);
+    return current;
   }
 
   @Override
@@ -172,15 +323,32 @@ public class CrewmateSparkMax implements CrewmateMotor {
 
   @Override
   public void setSetpoint(double setpoint, ControlType controlType) {
-    this.setpoint.set(setpoint);
+    this.setpoint.set(setpoint, controlType, Timer.getFPGATimestamp());
     var sparkControlType =
         switch (controlType) {
           case POSITION -> com.revrobotics.CANSparkBase.ControlType.kPosition;
           case VELOCITY -> com.revrobotics.CANSparkBase.ControlType.kVelocity;
           case CURRENT -> com.revrobotics.CANSparkBase.ControlType.kCurrent;
           case DUTYCYCLE -> com.revrobotics.CANSparkBase.ControlType.kDutyCycle;
+          case PROFILED_POSITION -> com.revrobotics.CANSparkBase.ControlType.kSmartMotion;
         };
-    pid.setReference(setpoint, sparkControlType);
+    long start = MotorHealth.start();
+    REVLibError error = pid.setReference(setpoint, sparkControlType);
+    health.recordWrite(start);
+    recordResult(error);
+  }
+
+  /**
+   * Profiled setpoints use on-controller Smart Motion. Smart Motion follows the profile with a
+   * velocity loop, so the slot 0 gains (and usually a feedforward) need to suit velocity control
+   */
+  @Override
+  public void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {
+    // Smart Motion limits are in velocity units, which are not always position units per second
+    double scale =
+        60.0 * encoder.getVelocityConversionFactor() / encoder.getPositionConversionFactor();
+    recordResult(pid.setSmartMotionMaxVelocity(maxVelocity * scale, 0));
+    recordResult(pid.setSmartMotionMaxAccel(maxAcceleration * scale, 0));
   }
 
   @Override
@@ -188,6 +356,29 @@ public class CrewmateSparkMax implements CrewmateMotor {
     return setpoint.get();
   }
 
+  @Override
+  public void readSetpoint(SetpointStore.Snapshot out) {
+    setpoint.read(out);
+  }
+
+  @Override
+  public synchronized MotorSampleQueue enableSampleQueue(int capacity) {
+    if (sampleQueue == null) {
+      sampleQueue = new MotorSampleQueue(capacity);
+    }
+    return sampleQueue;
+  }
+
+  @Override
+  public MotorSampleQueue getSampleQueue() {
+    return sampleQueue;
+  }
+
+  @Override
+  public MotorHealth getHealth() {
+    return health;
+  }
+
   @Override
   public void setCurrentLimit(int limit) {
     controller.setSmartCurrentLimit(limit);
@@ -1,85 +1,363 @@
 package crewmate.lib.motor;
 
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.configs.TalonFXConfigurator;
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.MotionMagicDutyCycle;
+import com.ctre.phoenix6.controls.PositionDutyCycle;
+import com.ctre.phoenix6.controls.TorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VelocityDutyCycle;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import crewmate.lib.motor.MotorConfig.ControlType;
-import java.util.concurrent.atomic.AtomicReference;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CrewmateTalonFX implements CrewmateMotor {
   private final TalonFX controller;
-  private final AtomicReference<Double> setpoint; // Thread-safe reference to the setpoint
+  private final SetpointStore setpoint = new SetpointStore();
+  private volatile MotorSampleQueue sampleQueue;
+  private final MotorHealth health;
+
+  // Cached signal handles, refreshed together so reads come from one snapshot
+  private final StatusSignal<Double> positionSignal;
+  private final StatusSignal<Double> velocitySignal;
+  private final StatusSignal<Double> currentSignal;
+  private final BaseStatusSignal[] signals;
+  private volatile double lastRefreshTime = Double.NEGATIVE_INFINITY;
+  private volatile double maxSignalAge = DEFAULT_MAX_SIGNAL_AGE;
+
+  // Control requests are allocated once and updated in place
+  private final PositionDutyCycle positionRequest = new PositionDutyCycle(0);
+  private final VelocityDutyCycle velocityRequest = new VelocityDutyCycle(0);
+  private final TorqueCurrentFOC currentRequest = new TorqueCurrentFOC(0);
+  private final DutyCycleOut dutyCycleRequest = new DutyCycleOut(0);
+  private final VoltageOut voltageRequest = new VoltageOut(0);
+  private final MotionMagicDutyCycle profiledRequest = new MotionMagicDutyCycle(0);
+  private ControlRequest lastRequest;
+  private double lastRequestValue;
 
   private volatile double lastPosition = 0.0;
   private volatile double lastVelocity = 0.0;
   private static final double DEFAULT_CURRENT_LIMIT = 40.0;
+  private static final double DEFAULT_MAX_SIGNAL_AGE = 0.01; // Half of a 20 ms loop
   private TalonFXConfiguration config;
 
+  // Config groups changed since the last apply, guarded by configLock
+  private final Object configLock = new Object();
+  private boolean staging = false;
+  private boolean slot0Changed = false;
+  private boolean currentLimitsChanged = false;
+  private boolean motorOutputChanged = false;
+  private boolean motionMagicChanged = false;
+  private StatusCode startupStatus = StatusCode.OK;
+
+  // Shared by all TalonFX so async applies never block the robot thread
+  private static final ExecutorService CONFIG_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "CrewmateTalonFX Config");
+            thread.setDaemon(true);
+            return thread;
+          });
+
   public CrewmateTalonFX(MotorConfig config) {
     controller = new TalonFX(config.canID);
-    setpoint = new AtomicReference<>(0.0);
+    health = new MotorHealth("TalonFX/" + config.canID);
     this.config = new TalonFXConfiguration();
 
-    initializeController(config);
+    positionSignal = controller.getPosition();
+    velocitySignal = controller.getVelocity();
+    currentSignal = controller.getSupplyCurrent();
+    signals = new BaseStatusSignal[] {positionSignal, velocitySignal, currentSignal};
+
+    beginConfig();
     configureController();
+    initializeController(config);
     applyOptimizedSettings();
   }
 
   private void initializeController(MotorConfig config) {
-    controller.setInverted(config.reversed.orElse(false));
-    config.currentLimit.ifPresent(this::setCurrentLimit);
-    setBrakeMode(config.brakeMode.orElse(false));
-
-    config.p.ifPresent(this::setP);
-    config.i.ifPresent(this::setI);
-    config.d.ifPresent(this::setD);
+    stageConfig(config);
   }
 
   private void configureController() {
-    this.config.CurrentLimits.SupplyCurrentLimit = DEFAULT_CURRENT_LIMIT;
-    this.config.CurrentLimits.SupplyCurrentLimitEnable = true;
+    synchronized (configLock) {
+      this.config.CurrentLimits.SupplyCurrentLimit = DEFAULT_CURRENT_LIMIT;
+      this.config.CurrentLimits.SupplyCurrentLimitEnable = true;
+
+      // Write the whole configuration once on startup
+      slot0Changed = true;
+      currentLimitsChanged = true;
+      motorOutputChanged = true;
+      motionMagicChanged = true;
+    }
   }
 
   private void applyOptimizedSettings() {
-    controller.getConfigurator().apply(this.config);
+    startupStatus = applyConfig();
+  }
+
+  /**
+   * Status of the configuration written on construction
+   *
+   * @return StatusCode.OK if startup succeeded
+   */
+  public StatusCode getStartupStatus() {
+    return startupStatus;
+  }
+
+  /**
+   * Starts a configuration transaction. Until {@link #applyConfig()} or {@link
+   * #applyConfigAsync()} is called, setters such as {@link #setP(double)} only change the staged
+   * configuration and do not touch the CAN bus.
+   */
+  public void beginConfig() {
+    synchronized (configLock) {
+      staging = true;
+    }
+  }
+
+  /**
+   * Stages every value present in a MotorConfig. Applies immediately unless a transaction was
+   * started with {@link #beginConfig()}.
+   *
+   * @param motorConfig values to stage, empty values are left unchanged
+   */
+  public void stageConfig(MotorConfig motorConfig) {
+    synchronized (configLock) {
+      boolean wasStaging = staging;
+      staging = true;
+      if (motorConfig.has(MotorConfig.REVERSED)) setInverted(motorConfig.reversed);
+      if (motorConfig.has(MotorConfig.BRAKE_MODE)) setBrakeMode(motorConfig.brakeMode);
+      if (motorConfig.has(MotorConfig.CURRENT_LIMIT)) setCurrentLimit(motorConfig.currentLimit);
+      if (motorConfig.has(MotorConfig.P)) setP(motorConfig.p);
+      if (motorConfig.has(MotorConfig.I)) setI(motorConfig.i);
+      if (motorConfig.has(MotorConfig.D)) setD(motorConfig.d);
+      staging = wasStaging;
+      applyIfNotStaging();
+    }
+  }
+
+  /**
+   * Ends a configuration transaction, writing only the config groups (Slot0, CurrentLimits,
+   * MotorOutput, MotionMagic) that changed. Blocks until the motor controller responds.
+   *
+   * @return the worst status returned by the motor controller
+   */
+  public StatusCode applyConfig() {
+    synchronized (configLock) {
+      staging = false;
+      return applyChangedGroups();
+    }
+  }
+
+  /**
+   * Ends a configuration transaction like {@link #applyConfig()}, performing the write on a
+   * background thread
+   *
+   * @return future completed with the worst status returned by the motor controller
+   */
+  public CompletableFuture<StatusCode> applyConfigAsync() {
+    synchronized (configLock) {
+      staging = false;
+    }
+    return CompletableFuture.supplyAsync(
+        () -> {
+          synchronized (configLock) {
+            return applyChangedGroups();
+          }
+        },
+        CONFIG_EXECUTOR);
+  }
+
+  /** Writes the changed config groups, callers must hold configLock */
+  private StatusCode applyChangedGroups() {
+    long start = MotorHealth.start();
+    TalonFXConfigurator configurator = controller.getConfigurator();
+    StatusCode status = StatusCode.OK;
+
+    if (slot0Changed && currentLimitsChanged && motorOutputChanged && motionMagicChanged) {
+      status = configurator.apply(this.config);
+    } else {
+      if (slot0Changed) {
+        status = worst(status, configurator.apply(this.config.Slot0));
+      }
+      if (currentLimitsChanged) {
+        status = worst(status, configurator.apply(this.config.CurrentLimits));
+      }
+      if (motorOutputChanged) {
+        status = worst(status, configurator.apply(this.config.MotorOutput));
+      }
+      if (motionMagicChanged) {
+        status = worst(status, configurator.apply(this.config.MotionMagic));
+      }
+    }
+
+    slot0Changed = false;
+    currentLimitsChanged = false;
+    motorOutputChanged = false;
+    motionMagicChanged = false;
+
+    health.recordConfigApply(start);
+    recordStatus(status);
+    return status;
+  }
+
+  /** Counts an error or warning returned by the controller */
+  private void recordStatus(StatusCode status) {
+    if (!status.isOK()) {
+      health.recordError(status.getName(), status == StatusCode.RxTimeout);
+    }
+  }
+
+  /** Counts a refresh whose signals did not update in time */
+  void checkSignals(StatusCode status) {
+    if (!status.isOK()) {
+      health.recordStale();
+      recordStatus(status);
+    }
+  }
+
+  private static StatusCode worst(StatusCode current, StatusCode next) {
+    return current.isOK() ? next : current;
+  }
+
+  /** Applies changed config groups unless in a transaction, callers must hold configLock */
+  private void applyIfNotStaging() {
+    if (!staging) {
+      applyChangedGroups();
+    }
   }
 
   // Reducde can bus operations vs setting each individually
+  @Override
   public void setPID(double p, double i, double d) {
-    this.config.Slot0.kP = p;
-    this.config.Slot0.kI = i;
-    this.config.Slot0.kD = d;
-    controller.getConfigurator().apply(this.config);
+    synchronized (configLock) {
+      this.config.Slot0.kP = p;
+      this.config.Slot0.kI = i;
+      this.config.Slot0.kD = d;
+      slot0Changed = true;
+      applyIfNotStaging();
+    }
+  }
+
+  /**
+   * Sends a control request unless it is the same request with the same value as the last one
+   * sent. Phoenix keeps transmitting the last request, so skipping the write is safe. Callers hold
+   * the lock, as the requests are shared.
+   */
+  private void sendIfChanged(ControlRequest request, double value) {
+    if (request == lastRequest && value == lastRequestValue) {
+      return;
+    }
+    long start = MotorHealth.start();
+    StatusCode status = controller.setControl(request);
+    health.recordWrite(start);
+    recordStatus(status);
+    lastRequest = request;
+    lastRequestValue = value;
   }
 
   @Override
-  public void set(double throttle) {
-    controller.set(throttle);
+  public synchronized void set(double throttle) {
+    sendIfChanged(dutyCycleRequest.withOutput(throttle), throttle);
   }
 
   @Override
-  public void setVoltage(double volts) {
-    controller.setControl(new VoltageOut(volts));
+  public synchronized void setVoltage(double volts) {
+    sendIfChanged(voltageRequest.withOutput(volts), volts);
+  }
+
+  /**
+   * Refreshes position, velocity and current in a single batched CAN read. Reads made within the
+   * max signal age of a refresh are served from this snapshot.
+   */
+  @Override
+  public void refreshSignals() {
+    long start = MotorHealth.start();
+    StatusCode status = BaseStatusSignal.refreshAll(signals);
+    health.recordRead(start);
+    checkSignals(status);
+    lastRefreshTime = Timer.getFPGATimestamp();
+  }
+
+  private void refreshIfStale() {
+    if (Timer.getFPGATimestamp() - lastRefreshTime > maxSignalAge) {
+      refreshSignals();
+    }
+  }
+
+  /**
+   * Sets how old the signal snapshot may get before a read refreshes it. Set to 0 to refresh on
+   * every read, or to a large value when {@link #refreshSignals()} is called once per loop
+   *
+   * @param seconds maximum snapshot age
+   */
+  public void setMaxSignalAge(double seconds) {
+    this.maxSignalAge = seconds;
+  }
+
+  /**
+   * Sets how often the motor controller broadcasts each signal
+   *
+   * @param positionHz position update frequency
+   * @param velocityHz velocity update frequency
+   * @param currentHz supply current update frequency
+   */
+  public void setSignalUpdateFrequencies(double positionHz, double velocityHz, double currentHz) {
+    positionSignal.setUpdateFrequency(positionHz);
+    velocitySignal.setUpdateFrequency(velocityHz);
+    currentSignal.setUpdateFrequency(currentHz);
+  }
+
+  /** Position signal refreshed by {@link #refreshSignals()}, for batching across motors */
+  StatusSignal<Double> getPositionSignal() {
+    return positionSignal;
+  }
+
+  /** Velocity signal refreshed by {@link #refreshSignals()}, for batching across motors */
+  StatusSignal<Double> getVelocitySignal() {
+    return velocitySignal;
+  }
+
+  /** Supply current signal refreshed by {@link #refreshSignals()}, for batching across motors */
+  StatusSignal<Double> getCurrentSignal() {
+    return currentSignal;
+  }
+
+  /** Marks the cached signals as refreshed by an external batched refresh */
+  void markRefreshed(double timestamp) {
+    checkSignals(positionSignal.getStatus());
+    lastRefreshTime = timestamp;
   }
 
   @Override
   public double getPosition() {
-    lastPosition = controller.getPosition().getValueAsDouble();
+    refreshIfStale();
+    lastPosition = positionSignal.getValueAsDouble();
     return lastPosition;
   }
 
   @Override
   public double getVelocity() {
-    lastVelocity = controller.getVelocity().getValueAsDouble();
+    refreshIfStale();
+    lastVelocity = velocitySignal.getValueAsDouble();
     return lastVelocity;
   }
 
   @Override
   public double getCurrent() {
-    return controller.getSupplyCurrent().getValueAsDouble();
+    refreshIfStale();
+    return currentSignal.getValueAsDouble();
   }
 
   @Override
@@ -89,20 +367,29 @@ public class CrewmateTalonFX implements CrewmateMotor {
 
   @Override
   public void setP(double p) {
-    this.config.Slot0.kP = p;
-    controller.getConfigurator().apply(this.config);
+    synchronized (configLock) {
+      this.config.Slot0.kP = p;
+      slot0Changed = true;
+      applyIfNotStaging();
+    }
   }
 
   @Override
   public void setI(double i) {
-    this.config.Slot0.kI = i;
-    controller.getConfigurator().apply(this.config);
+    synchronized (configLock) {
+      this.config.Slot0.kI = i;
+      slot0Changed = true;
+      applyIfNotStaging();
+    }
   }
 
   @Override
   public void setD(double d) {
-    this.config.Slot0.kD = d;
-    controller.getConfigurator().apply(this.config);
+    synchronized (configLock) {
+      this.config.Slot0.kD = d;
+      slot0Changed = true;
+      applyIfNotStaging();
+    }
   }
 
   @Override
@@ -121,18 +408,44 @@ public class CrewmateTalonFX implements CrewmateMotor {
   }
 
   @Override
-  public void setSetpoint(double setpoint, ControlType controlType) {
-    this.setpoint.set(setpoint);
+  public synchronized void setSetpoint(double setpoint, ControlType controlType) {
+    this.setpoint.set(setpoint, controlType, Timer.getFPGATimestamp());
 
-    var request =
+    ControlRequest request =
         switch (controlType) {
-          case POSITION -> new com.ctre.phoenix6.controls.PositionDutyCycle(setpoint);
-          case VELOCITY -> new com.ctre.phoenix6.controls.VelocityDutyCycle(setpoint);
-          case CURRENT -> new com.ctre.phoenix6.controls.TorqueCurrentFOC(setpoint);
-          case DUTYCYCLE -> new com.ctre.phoenix6.controls.DutyCycleOut(setpoint);
+          case POSITION -> positionRequest.withPosition(setpoint);
+          case VELOCITY -> velocityRequest.withVelocity(setpoint);
+          case CURRENT -> currentRequest.withOutput(setpoint);
+          case DUTYCYCLE -> dutyCycleRequest.withOutput(setpoint);
+          case PROFILED_POSITION -> profiledRequest.withPosition(setpoint);
         };
 
-    controller.setControl(request);
+    sendIfChanged(request, setpoint);
+  }
+
+  /** Profiled setpoints use on-controller Motion Magic, in rotations */
+  @Override
+  public void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {
+    setMotionProfileConstraints(maxVelocity, maxAcceleration, 0.0);
+  }
+
+  /**
+   * Sets the Motion Magic limits used by profiled setpoints. A non-zero jerk limit gives an S-curve
+   * profile
+   *
+   * @param maxVelocity cruise velocity, in rotations per second
+   * @param maxAcceleration acceleration, in rotations per second squared
+   * @param maxJerk jerk, in rotations per second cubed, 0 for a trapezoid profile
+   */
+  public void setMotionProfileConstraints(
+      double maxVelocity, double maxAcceleration, double maxJerk) {
+    synchronized (configLock) {
+      this.config.MotionMagic.MotionMagicCruiseVelocity = maxVelocity;
+      this.config.MotionMagic.MotionMagicAcceleration = maxAcceleration;
+      this.config.MotionMagic.MotionMagicJerk = maxJerk;
+      motionMagicChanged = true;
+      applyIfNotStaging();
+    }
   }
 
   @Override
@@ -140,18 +453,60 @@ public class CrewmateTalonFX implements CrewmateMotor {
     return setpoint.get();
   }
 
+  @Override
+  public void readSetpoint(SetpointStore.Snapshot out) {
+    setpoint.read(out);
+  }
+
+  @Override
+  public synchronized MotorSampleQueue enableSampleQueue(int capacity) {
+    if (sampleQueue == null) {
+      sampleQueue = new MotorSampleQueue(capacity);
+    }
+    return sampleQueue;
+  }
+
+  @Override
+  public MotorSampleQueue getSampleQueue() {
+    return sampleQueue;
+  }
+
+  @Override
+  public MotorHealth getHealth() {
+    return health;
+  }
+
   @Override
   public void setCurrentLimit(int limit) {
-    this.config.CurrentLimits.SupplyCurrentLimit = limit;
-    this.config.CurrentLimits.SupplyCurrentLimitEnable = true;
-    controller.getConfigurator().apply(this.config);
+    synchronized (configLock) {
+      this.config.CurrentLimits.SupplyCurrentLimit = limit;
+      this.config.CurrentLimits.SupplyCurrentLimitEnable = true;
+      currentLimitsChanged = true;
+      applyIfNotStaging();
+    }
   }
 
   @Override
   public void setBrakeMode(boolean enable) {
-    var motorConfig = new MotorOutputConfigs();
-    motorConfig.Inverted = InvertedValue.CounterClockwise_Positive;
-    motorConfig.NeutralMode = enable ? NeutralModeValue.Brake : NeutralModeValue.Coast;
-    controller.getConfigurator().apply(motorConfig);
+    synchronized (configLock) {
+      this.config.MotorOutput.NeutralMode =
+          enable ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+      motorOutputChanged = true;
+      applyIfNotStaging();
+    }
+  }
+
+  /**
+   * Sets the direction of the motor
+   *
+   * @param inverted true for clockwise positive, false for counter-clockwise positive
+   */
+  public void setInverted(boolean inverted) {
+    synchronized (configLock) {
+      this.config.MotorOutput.Inverted =
+          inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
+      motorOutputChanged = true;
+      applyIfNotStaging();
+    }
   }
 }
@@ -1,7 +1,24 @@
 package crewmate.lib.motor;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Configuration for a CrewmateMotor
+ *
+ * <p>Optional settings are stored as primitives with a presence bitmask, settings that are not
+ * present are left at the motor controller's default. Configs can be built with {@link
+ * #builder(int, Type)}, compared with {@link #differences(MotorConfig)}, and serialised to a
+ * compact binary form or to JSON so they can be loaded from a deploy file.
+ */
 public class MotorConfig {
   public enum Type {
     BRUSHED,
@@ -12,19 +29,44 @@ public class MotorConfig {
     POSITION,
     VELOCITY,
     CURRENT,
-    DUTYCYCLE
+    DUTYCYCLE,
+    /**
+     * Position reached through a trapezoid motion profile limited by {@link
+     * CrewmateMotor#setMotionProfileConstraints(double, double)}, generated on the motor
+     * controller where supported
+     */
+    PROFILED_POSITION
   }
 
+  // Presence bits for the optional settings
+  static final int CURRENT_LIMIT = 1 << 0;
+  static final int P = 1 << 1;
+  static final int I = 1 << 2;
+  static final int D = 1 << 3;
+  static final int REVERSED = 1 << 4;
+  static final int POSITION_CONVERSION_FACTOR = 1 << 5;
+  static final int VELOCITY_CONVERSION_FACTOR = 1 << 6;
+  static final int BRAKE_MODE = 1 << 7;
+
+  private static final byte BINARY_VERSION = 1;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   int canID;
   Type motorType;
-  Optional<Integer> currentLimit;
-  Optional<Double> p;
-  Optional<Double> i;
-  Optional<Double> d;
-  Optional<Boolean> reversed;
-  Optional<Double> positionConversionFactor;
-  Optional<Double> velocityConversionFactor;
-  Optional<Boolean> brakeMode;
+  int present;
+  int currentLimit;
+  double p;
+  double i;
+  double d;
+  boolean reversed;
+  double positionConversionFactor;
+  double velocityConversionFactor;
+  boolean brakeMode;
+
+  private MotorConfig(int canID, Type motorType) {
+    this.canID = canID;
+    this.motorType = motorType;
+  }
 
   public MotorConfig(
       int canID,
@@ -37,16 +79,15 @@ public class MotorConfig {
       Optional<Double> positionConversionFactor,
       Optional<Double> velocityConversionFactor,
       Optional<Boolean> brakeMode) {
-    this.canID = canID;
-    this.motorType = motorType;
-    this.currentLimit = currentLimit;
-    this.p = p;
-    this.i = i;
-    this.d = d;
-    this.reversed = reversed;
-    this.positionConversionFactor = positionConversionFactor;
-    this.velocityConversionFactor = velocityConversionFactor;
-    this.brakeMode = brakeMode;
+    this(canID, motorType);
+    currentLimit.ifPresent(this::setCurrentLimit);
+    p.ifPresent(this::setP);
+    i.ifPresent(this::setI);
+    d.ifPresent(this::setD);
+    reversed.ifPresent(this::setReversed);
+    positionConversionFactor.ifPresent(this::setPositionConversionFactor);
+    velocityConversionFactor.ifPresent(this::setVelocityConversionFactor);
+    brakeMode.ifPresent(this::setBrakeMode);
   }
 
   /**
@@ -57,17 +98,7 @@ public class MotorConfig {
    * @return MotorConfig
    */
   public static MotorConfig motorBasic(int canID, Type motorType) {
-    return new MotorConfig(
-        canID,
-        motorType,
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.of(false));
+    return builder(canID, motorType).withBrakeMode(false).build();
   }
 
   /**
@@ -79,41 +110,460 @@ public class MotorConfig {
    * @return MotorConfig
    */
   public static MotorConfig motorBasicGearbox(int canID, Type motorType, double gearboxRatio) {
-    return new MotorConfig(
-        canID,
-        motorType,
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.empty(),
-        Optional.of(gearboxRatio),
-        Optional.of(gearboxRatio / 60.0d),
-        Optional.of(false));
+    return builder(canID, motorType)
+        .withPositionConversionFactor(gearboxRatio)
+        .withVelocityConversionFactor(gearboxRatio / 60.0d)
+        .withBrakeMode(false)
+        .build();
   }
 
   public static MotorConfig motorPID(
       int canID, Type motorType, double gearboxRatio, double p, double i, double d) {
-    return new MotorConfig(
-        canID,
-        motorType,
-        Optional.empty(),
-        Optional.of(p),
-        Optional.of(i),
-        Optional.of(d),
-        Optional.empty(),
-        Optional.of(gearboxRatio),
-        Optional.of(gearboxRatio / 60.0d),
-        Optional.of(false));
+    return builder(canID, motorType)
+        .withPID(p, i, d)
+        .withPositionConversionFactor(gearboxRatio)
+        .withVelocityConversionFactor(gearboxRatio / 60.0d)
+        .withBrakeMode(false)
+        .build();
+  }
+
+  /**
+   * Starts building a MotorConfig with no optional settings
+   *
+   * @param canID Can ID of the Motor
+   * @param motorType Brushed or Brushless
+   * @return Builder
+   */
+  public static Builder builder(int canID, Type motorType) {
+    return new Builder(canID, motorType);
+  }
+
+  /** Builds a MotorConfig one setting at a time */
+  public static final class Builder {
+    private final MotorConfig config;
+
+    private Builder(int canID, Type motorType) {
+      config = new MotorConfig(canID, motorType);
+    }
+
+    public Builder withCurrentLimit(int currentLimit) {
+      config.setCurrentLimit(currentLimit);
+      return this;
+    }
+
+    public Builder withP(double p) {
+      config.setP(p);
+      return this;
+    }
+
+    public Builder withI(double i) {
+      config.setI(i);
+      return this;
+    }
+
+    public Builder withD(double d) {
+      config.setD(d);
+      return this;
+    }
+
+    public Builder withPID(double p, double i, double d) {
+      return withP(p).withI(i).withD(d);
+    }
+
+    public Builder withReversed(boolean reversed) {
+      config.setReversed(reversed);
+      return this;
+    }
+
+    public Builder withPositionConversionFactor(double factor) {
+      config.setPositionConversionFactor(factor);
+      return this;
+    }
+
+    public Builder withVelocityConversionFactor(double factor) {
+      config.setVelocityConversionFactor(factor);
+      return this;
+    }
+
+    public Builder withBrakeMode(boolean brakeMode) {
+      config.setBrakeMode(brakeMode);
+      return this;
+    }
+
+    /**
+     * Creates the MotorConfig. The builder can keep being used without affecting it.
+     *
+     * @return MotorConfig
+     */
+    public MotorConfig build() {
+      return config.copy();
+    }
+  }
+
+  /**
+   * Checks whether an optional setting is present
+   *
+   * @param field presence bit of the setting
+   * @return true if present
+   */
+  boolean has(int field) {
+    return (present & field) != 0;
   }
 
   public MotorConfig setReversed(boolean reversed) {
-    this.reversed = Optional.of(reversed);
+    this.reversed = reversed;
+    present |= REVERSED;
     return this;
   }
 
   public MotorConfig setCurrentLimit(int currentLimit) {
-    this.currentLimit = Optional.of(currentLimit);
+    this.currentLimit = currentLimit;
+    present |= CURRENT_LIMIT;
     return this;
   }
+
+  private void setP(double p) {
+    this.p = p;
+    present |= P;
+  }
+
+  private void setI(double i) {
+    this.i = i;
+    present |= I;
+  }
+
+  private void setD(double d) {
+    this.d = d;
+    present |= D;
+  }
+
+  private void setPositionConversionFactor(double factor) {
+    this.positionConversionFactor = factor;
+    present |= POSITION_CONVERSION_FACTOR;
+  }
+
+  private void setVelocityConversionFactor(double factor) {
+    this.velocityConversionFactor = factor;
+    present |= VELOCITY_CONVERSION_FACTOR;
+  }
+
+  private void setBrakeMode(boolean brakeMode) {
+    this.brakeMode = brakeMode;
+    present |= BRAKE_MODE;
+  }
+
+  /**
+   * Creates an independent copy of this config
+   *
+   * @return MotorConfig
+   */
+  public MotorConfig copy() {
+    MotorConfig copy = new MotorConfig(canID, motorType);
+    copy.present = present;
+    copy.currentLimit = currentLimit;
+    copy.p = p;
+    copy.i = i;
+    copy.d = d;
+    copy.reversed = reversed;
+    copy.positionConversionFactor = positionConversionFactor;
+    copy.velocityConversionFactor = velocityConversionFactor;
+    copy.brakeMode = brakeMode;
+    return copy;
+  }
+
+  public int getCanID() {
+    return canID;
+  }
+
+  public Type getMotorType() {
+    return motorType;
+  }
+
+  /**
+   * Finds the optional settings that differ between two configs, including settings present in
+   * only one of them. CAN ID and motor type are not compared.
+   *
+   * @param other config to compare against
+   * @return bitmask of differing settings, 0 if they match
+   */
+  public int differences(MotorConfig other) {
+    int diff = present ^ other.present;
+    int both = present & other.present;
+    if ((both & CURRENT_LIMIT) != 0 && currentLimit != other.currentLimit) diff |= CURRENT_LIMIT;
+    if ((both & P) != 0 && Double.compare(p, other.p) != 0) diff |= P;
+    if ((both & I) != 0 && Double.compare(i, other.i) != 0) diff |= I;
+    if ((both & D) != 0 && Double.compare(d, other.d) != 0) diff |= D;
+    if ((both & REVERSED) != 0 && reversed != other.reversed) diff |= REVERSED;
+    if ((both & POSITION_CONVERSION_FACTOR) != 0
+        && Double.compare(positionConversionFactor, other.positionConversionFactor) != 0) {
+      diff |= POSITION_CONVERSION_FACTOR;
+    }
+    if ((both & VELOCITY_CONVERSION_FACTOR) != 0
+        && Double.compare(velocityConversionFactor, other.velocityConversionFactor) != 0) {
+      diff |= VELOCITY_CONVERSION_FACTOR;
+    }
+    if ((both & BRAKE_MODE) != 0 && brakeMode != other.brakeMode) diff |= BRAKE_MODE;
+    return diff;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) return true;
+    if (!(other instanceof MotorConfig config)) return false;
+    return canID == config.canID && motorType == config.motorType && differences(config) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 31 * canID + motorType.hashCode();
+    hash = 31 * hash + present;
+    if (has(CURRENT_LIMIT)) hash = 31 * hash + currentLimit;
+    if (has(P)) hash = 31 * hash + Double.hashCode(p);
+    if (has(I)) hash = 31 * hash + Double.hashCode(i);
+    if (has(D)) hash = 31 * hash + Double.hashCode(d);
+    if (has(REVERSED)) hash = 31 * hash + Boolean.hashCode(reversed);
+    if (has(POSITION_CONVERSION_FACTOR)) {
+      hash = 31 * hash + Double.hashCode(positionConversionFactor);
+    }
+    if (has(VELOCITY_CONVERSION_FACTOR)) {
+      hash = 31 * hash + Double.hashCode(velocityConversionFactor);
+    }
+    if (has(BRAKE_MODE)) hash = 31 * hash + Boolean.hashCode(brakeMode);
+    return hash;
+  }
+
+  /**
+   * Number of bytes {@link #writeTo(ByteBuffer)} will write
+   *
+   * @return serialised size in bytes
+   */
+  public int serializedSize() {
+    int size = 1 + 4 + 1 + 1; // version, CAN ID, motor type, presence mask
+    if (has(CURRENT_LIMIT)) size += 4;
+    int doubles = P | I | D | POSITION_CONVERSION_FACTOR | VELOCITY_CONVERSION_FACTOR;
+    size += 8 * Integer.bitCount(present & doubles);
+    size += Integer.bitCount(present & (REVERSED | BRAKE_MODE));
+    return size;
+  }
+
+  /**
+   * Writes this config in a compact binary form, only present settings take up space
+   *
+   * @param buffer buffer to write into
+   */
+  public void writeTo(ByteBuffer buffer) {
+    buffer.put(BINARY_VERSION);
+    buffer.putInt(canID);
+    buffer.put((byte) motorType.ordinal());
+    buffer.put((byte) present);
+    if (has(CURRENT_LIMIT)) buffer.putInt(currentLimit);
+    if (has(P)) buffer.putDouble(p);
+    if (has(I)) buffer.putDouble(i);
+    if (has(D)) buffer.putDouble(d);
+    if (has(REVERSED)) buffer.put((byte) (reversed ? 1 : 0));
+    if (has(POSITION_CONVERSION_FACTOR)) buffer.putDouble(positionConversionFactor);
+    if (has(VELOCITY_CONVERSION_FACTOR)) buffer.putDouble(velocityConversionFactor);
+    if (has(BRAKE_MODE)) buffer.put((byte) (brakeMode ? 1 : 0));
+  }
+
+  /**
+   * Reads a config written by {@link #writeTo(ByteBuffer)}
+   *
+   * @param buffer buffer to read from
+   * @return MotorConfig
+   * @throws IllegalArgumentException if the data was written by an unknown version or has an
+   *     unknown motor type
+   */
+  public static MotorConfig readFrom(ByteBuffer buffer) {
+    byte version = buffer.get();
+    if (version != BINARY_VERSION) {
+      throw new IllegalArgumentException("Unknown MotorConfig binary version " + version);
+    }
+    int canID = buffer.getInt();
+    byte type = buffer.get();
+    Type[] types = Type.values();
+    if (type < 0 || type >= types.length) {
+      throw new IllegalArgumentException("Unknown MotorConfig motorType " + type);
+    }
+    MotorConfig config = new MotorConfig(canID, types[type]);
+    int mask = buffer.get() & 0xFF;
+    if ((mask & CURRENT_LIMIT) != 0) config.setCurrentLimit(buffer.getInt());
+    if ((mask & P) != 0) config.setP(buffer.getDouble());
+    if ((mask & I) != 0) config.setI(buffer.getDouble());
+    if ((mask & D) != 0) config.setD(buffer.getDouble());
+    if ((mask & REVERSED) != 0) config.setReversed(buffer.get() != 0);
+    if ((mask & POSITION_CONVERSION_FACTOR) != 0) {
+      config.setPositionConversionFactor(buffer.getDouble());
+    }
+    if ((mask & VELOCITY_CONVERSION_FACTOR) != 0) {
+      config.setVelocityConversionFactor(buffer.getDouble());
+    }
+    if ((mask & BRAKE_MODE) != 0) config.setBrakeMode(buffer.get() != 0);
+    return config;
+  }
+
+  /**
+   * Serialises this config to its compact binary form
+   *
+   * @return bytes
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Deserialises a config from its compact binary form
+   *
+   * @param bytes bytes produced by {@link #toBytes()}
+   * @return MotorConfig
+   */
+  public static MotorConfig fromBytes(byte[] bytes) {
+    return readFrom(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Converts this config to a JSON object, only present settings are included
+   *
+   * @return JSON object
+   */
+  public ObjectNode toJsonNode() {
+    ObjectNode node = MAPPER.createObjectNode();
+    node.put("canID", canID);
+    node.put("motorType", motorType.name());
+    if (has(CURRENT_LIMIT)) node.put("currentLimit", currentLimit);
+    if (has(P)) node.put("p", p);
+    if (has(I)) node.put("i", i);
+    if (has(D)) node.put("d", d);
+    if (has(REVERSED)) node.put("reversed", reversed);
+    if (has(POSITION_CONVERSION_FACTOR)) {
+      node.put("positionConversionFactor", positionConversionFactor);
+    }
+    if (has(VELOCITY_CONVERSION_FACTOR)) {
+      node.put("velocityConversionFactor", velocityConversionFactor);
+    }
+    if (has(BRAKE_MODE)) node.put("brakeMode", brakeMode);
+    return node;
+  }
+
+  /**
+   * Reads a config from a JSON object in the form produced by {@link #toJsonNode()}
+   *
+   * @param node JSON object
+   * @return MotorConfig
+   * @throws IllegalArgumentException if the CAN ID or motor type is missing, or a field has the
+   *     wrong type or an unknown value
+   */
+  public static MotorConfig fromJsonNode(JsonNode node) {
+    if (!node.has("canID") || !node.has("motorType")) {
+      throw new IllegalArgumentException("MotorConfig JSON requires canID and motorType");
+    }
+    MotorConfig config = new MotorConfig(intField(node, "canID"), typeField(node, "motorType"));
+    if (node.has("currentLimit")) config.setCurrentLimit(intField(node, "currentLimit"));
+    if (node.has("p")) config.setP(doubleField(node, "p"));
+    if (node.has("i")) config.setI(doubleField(node, "i"));
+    if (node.has("d")) config.setD(doubleField(node, "d"));
+    if (node.has("reversed")) config.setReversed(booleanField(node, "reversed"));
+    if (node.has("positionConversionFactor")) {
+      config.setPositionConversionFactor(doubleField(node, "positionConversionFactor"));
+    }
+    if (node.has("velocityConversionFactor")) {
+      config.setVelocityConversionFactor(doubleField(node, "velocityConversionFactor"));
+    }
+    if (node.has("brakeMode")) config.setBrakeMode(booleanField(node, "brakeMode"));
+    return config;
+  }
+
+  // Jackson's asInt and friends turn mistyped values into 0 or false, so check the type first
+  private static int intField(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+    if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+      throw new IllegalArgumentException("MotorConfig JSON " + name + " must be an int: " + value);
+    }
+    return value.asInt();
+  }
+
+  private static double doubleField(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+    if (!value.isNumber()) {
+      throw new IllegalArgumentException(
+          "MotorConfig JSON " + name + " must be a number: " + value);
+    }
+    return value.asDouble();
+  }
+
+  private static boolean booleanField(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+    if (!value.isBoolean()) {
+      throw new IllegalArgumentException(
+          "MotorConfig JSON " + name + " must be a boolean: " + value);
+    }
+    return value.asBoolean();
+  }
+
+  private static Type typeField(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+    if (value.isTextual()) {
+      for (Type type : Type.values()) {
+        if (type.name().equals(value.asText())) return type;
+      }
+    }
+    throw new IllegalArgumentException(
+        "MotorConfig JSON " + name + " is not a motor type: " + value);
+  }
+
+  /**
+   * Serialises this config to JSON
+   *
+   * @return JSON string
+   */
+  public String toJson() {
+    return toJsonNode().toString();
+  }
+
+  /**
+   * Deserialises a config from JSON
+   *
+   * @param json JSON string produced by {@link #toJson()}
+   * @return MotorConfig
+   * @throws IOException if the string is not valid JSON
+   */
+  public static MotorConfig fromJson(String json) throws IOException {
+    return fromJsonNode(MAPPER.readTree(json));
+  }
+
+  /**
+   * Loads a list of configs from a JSON array file, for example one in the deploy directory
+   *
+   * @param file JSON file containing an array of configs
+   * @return configs, in file order
+   * @throws IOException if the file cannot be read or parsed
+   */
+  public static List<MotorConfig> loadAll(File file) throws IOException {
+    JsonNode root = MAPPER.readTree(file);
+    if (!root.isArray()) {
+      throw new IOException("Expected a JSON array of MotorConfigs in " + file);
+    }
+    List<MotorConfig> configs = new ArrayList<>(root.size());
+    for (JsonNode node : root) {
+      configs.add(fromJsonNode(node));
+    }
+    return configs;
+  }
+
+  /**
+   * Saves a list of configs as a JSON array file
+   *
+   * @param configs configs to save
+   * @param file file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void saveAll(List<MotorConfig> configs, File file) throws IOException {
+    ArrayNode array = MAPPER.createArrayNode();
+    for (MotorConfig config : configs) {
+      array.add(config.toJsonNode());
+    }
+    MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, array);
+  }
 }
@@ -0,0 +1,220 @@
+package crewmate.lib.motor;
+
+import com.revrobotics.REVLibError;
+import crewmate.lib.motor.CrewmateSparkMax.StartupMode;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Constructs and configures many motors concurrently
+ *
+ * <p>Motor constructors block on CAN while they configure the controller. Running them on a small
+ * pool lets those round trips overlap, so startup time stops growing linearly with motor count.
+ * Each motor's configuration time and any failure are captured in a {@link Result}, failures never
+ * complete a future exceptionally.
+ */
+public class MotorFactory {
+  private static final String KEY = "MotorFactory";
+  private static final int DEFAULT_THREADS = 4;
+
+  private final ExecutorService executor;
+
+  /** Outcome of configuring one motor */
+  public static final class Result<T extends CrewmateMotor> {
+    private final MotorConfig config;
+    private final T motor;
+    private final double configTime;
+    private final String failure;
+
+    private Result(MotorConfig config, T motor, double configTime, String failure) {
+      this.config = config;
+      this.motor = motor;
+      this.configTime = configTime;
+      this.failure = failure;
+    }
+
+    /**
+     * Config the motor was created from
+     *
+     * @return MotorConfig
+     */
+    public MotorConfig getConfig() {
+      return config;
+    }
+
+    /**
+     * Created motor
+     *
+     * @return the motor, or null if construction threw
+     */
+    public T getMotor() {
+      return motor;
+    }
+
+    /**
+     * Time spent constructing and configuring the motor
+     *
+     * @return seconds
+     */
+    public double getConfigTime() {
+      return configTime;
+    }
+
+    /**
+     * Description of what went wrong
+     *
+     * @return failure description, or null if the motor was configured successfully
+     */
+    public String getFailure() {
+      return failure;
+    }
+
+    /**
+     * Whether the motor was created and configured without errors
+     *
+     * @return true if successful
+     */
+    public boolean succeeded() {
+      return failure == null;
+    }
+
+    public String toString() {
+      String time = String.format("%.1f ms", configTime * 1000.0);
+      if (succeeded()) {
+        return "CAN " + config.canID + ": configured in " + time;
+      }
+      return "CAN " + config.canID + ": failed after " + time + " (" + failure + ")";
+    }
+  }
+
+  /** Creates a new MotorFactory with a default sized pool */
+  public MotorFactory() {
+    this(DEFAULT_THREADS);
+  }
+
+  /**
+   * Creates a new MotorFactory
+   *
+   * @param threads number of motors to configure at once
+   */
+  public MotorFactory(int threads) {
+    executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              Thread thread = new Thread(runnable, "Crewmate MotorFactory");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Starts constructing one motor per config
+   *
+   * @param configs motor configurations
+   * @param constructor creates and configures a motor, for example {@code CrewmateTalonFX::new}
+   * @return one future per config, in the same order
+   */
+  public <T extends CrewmateMotor> List<CompletableFuture<Result<T>>> create(
+      List<MotorConfig> configs, Function<MotorConfig, T> constructor) {
+    List<CompletableFuture<Result<T>>> futures = new ArrayList<>(configs.size());
+    for (MotorConfig config : configs) {
+      futures.add(CompletableFuture.supplyAsync(() -> build(config, constructor), executor));
+    }
+    return futures;
+  }
+
+  /**
+   * Starts constructing one CrewmateSparkMax per config
+   *
+   * @param configs motor configurations
+   * @param startupMode how each controller is configured
+   * @return one future per config, in the same order
+   */
+  public List<CompletableFuture<Result<CrewmateSparkMax>>> createSparkMaxes(
+      List<MotorConfig> configs, StartupMode startupMode) {
+    return create(configs, config -> new CrewmateSparkMax(config, startupMode));
+  }
+
+  /**
+   * Starts constructing one CrewmateTalonFX per config
+   *
+   * @param configs motor configurations
+   * @return one future per config, in the same order
+   */
+  public List<CompletableFuture<Result<CrewmateTalonFX>>> createTalonFXs(
+      List<MotorConfig> configs) {
+    return create(configs, CrewmateTalonFX::new);
+  }
+
+  private static <T extends CrewmateMotor> Result<T> build(
+      MotorConfig config, Function<MotorConfig, T> constructor) {
+    long start = System.nanoTime();
+    T motor = null;
+    String failure;
+    try {
+      motor = constructor.apply(config);
+      failure = startupFailure(motor);
+    } catch (RuntimeException e) {
+      failure = e.toString();
+    }
+    return new Result<>(config, motor, (System.nanoTime() - start) / 1E9, failure);
+  }
+
+  private static String startupFailure(CrewmateMotor motor) {
+    if (motor instanceof CrewmateTalonFX talon && !talon.getStartupStatus().isOK()) {
+      return talon.getStartupStatus().getName();
+    }
+    if (motor instanceof CrewmateSparkMax spark && spark.getStartupError() != REVLibError.kOk) {
+      return spark.getStartupError().name();
+    }
+    return null;
+  }
+
+  /**
+   * Waits for every motor to finish configuring
+   *
+   * @param futures futures returned by this factory
+   * @return results, in the same order
+   */
+  public static <T extends CrewmateMotor> List<Result<T>> awaitAll(
+      List<CompletableFuture<Result<T>>> futures) {
+    List<Result<T>> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<Result<T>> future : futures) {
+      results.add(future.join());
+    }
+    return results;
+  }
+
+  /**
+   * Logs each motor's configuration time and any failure under {@code MotorFactory/CAN<id>}, and
+   * reports failures to the Driver Station
+   *
+   * @param results results to report
+   * @return true if every motor was configured successfully
+   */
+  public static boolean report(List<? extends Result<?>> results) {
+    boolean allSucceeded = true;
+    for (Result<?> result : results) {
+      String key = KEY + "/CAN" + result.getConfig().canID;
+      Logger.recordOutput(key + "/ConfigTimeMs", result.getConfigTime() * 1000.0);
+      Logger.recordOutput(key + "/Failure", result.succeeded() ? "" : result.getFailure());
+      if (!result.succeeded()) {
+        DriverStation.reportError(KEY + ": " + result, false);
+        allSucceeded = false;
+      }
+    }
+    return allSucceeded;
+  }
+
+  /** Stops the factory's threads once all submitted motors are configured */
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,291 @@
+package crewmate.lib.motor;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A group of motors whose telemetry is refreshed together
+ *
+ * <p>{@link #refresh()} reads every motor once and stores the results in preallocated arrays, so a
+ * drivetrain or superstructure can read one coherent snapshot instead of making blocking reads
+ * spread across the loop. TalonFX signals from every motor in the group are refreshed in a single
+ * batched call, and can optionally be waited on together so they are sampled at the same time.
+ *
+ * <p>A group refreshes the TalonFX signal objects the motors read from, so it must be refreshed on
+ * the thread that uses the motors. {@link MotorTelemetrySampler} instead uses a group with its own
+ * copies of the signals.
+ */
+public class MotorGroup {
+  private final CrewmateMotor[] motors;
+  private final CrewmateTalonFX[] talons; // index-aligned with motors, null if not a TalonFX
+  private final boolean ownSignals;
+  private final StatusSignal<Double>[] positionSignals; // index-aligned with talons
+  private final StatusSignal<Double>[] velocitySignals;
+  private final StatusSignal<Double>[] currentSignals;
+  private final BaseStatusSignal[] talonSignals;
+  private final DoubleSupplier clock;
+
+  private final double[] positions;
+  private final double[] velocities;
+  private final double[] currents;
+  private final double[] timestamps;
+  private final MotorSampleQueue[] groupQueues; // for motors without their own queue
+
+  private double synchronizationTimeout = 0.0;
+  private boolean latencyCompensation = false;
+
+  /**
+   * Creates a new MotorGroup timestamped with the FPGA clock
+   *
+   * @param motors motors in the group, snapshot indices follow this order
+   */
+  public MotorGroup(CrewmateMotor... motors) {
+    this(Timer::getFPGATimestamp, motors);
+  }
+
+  /**
+   * Creates a new MotorGroup using a custom clock
+   *
+   * @param clock time source in seconds, on the same timebase as TalonFX signal timestamps
+   * @param motors motors in the group, snapshot indices follow this order
+   */
+  public MotorGroup(DoubleSupplier clock, CrewmateMotor... motors) {
+    this(clock, false, motors);
+  }
+
+  /**
+   * Creates a new MotorGroup, optionally refreshing its own copies of the TalonFX signals
+   *
+   * @param clock time source in seconds, on the same timebase as TalonFX signal timestamps
+   * @param ownSignals true to leave the signals the motors read from untouched, so the group can be
+   *     refreshed from another thread. TalonFX motors then keep refreshing their own signals.
+   * @param motors motors in the group, snapshot indices follow this order
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+  MotorGroup(DoubleSupplier clock, boolean ownSignals, CrewmateMotor... motors) {
+    this.clock = clock;
+    this.ownSignals = ownSignals;
+    this.motors = motors.clone();
+    this.talons = new CrewmateTalonFX[motors.length];
+    this.positionSignals = new StatusSignal[motors.length];
+    this.velocitySignals = new StatusSignal[motors.length];
+    this.currentSignals = new StatusSignal[motors.length];
+
+    int talonCount = 0;
+    for (int i = 0; i < motors.length; i++) {
+      if (motors[i] instanceof CrewmateTalonFX talon) {
+        talons[i] = talon;
+        positionSignals[i] = signal(talon.getPositionSignal());
+        velocitySignals[i] = signal(talon.getVelocitySignal());
+        currentSignals[i] = signal(talon.getCurrentSignal());
+        talonCount++;
+      }
+    }
+
+    talonSignals = new BaseStatusSignal[3 * talonCount];
+    int next = 0;
+    for (int i = 0; i < motors.length; i++) {
+      if (talons[i] == null) continue;
+      talonSignals[next++] = positionSignals[i];
+      talonSignals[next++] = velocitySignals[i];
+      talonSignals[next++] = currentSignals[i];
+    }
+
+    positions = new double[motors.length];
+    velocities = new double[motors.length];
+    currents = new double[motors.length];
+    timestamps = new double[motors.length];
+    groupQueues = new MotorSampleQueue[motors.length];
+  }
+
+  private StatusSignal<Double> signal(StatusSignal<Double> motorSignal) {
+    return ownSignals ? motorSignal.clone() : motorSignal;
+  }
+
+  /**
+   * Queues every sample of one motor, using the motor's own queue where it has one and a queue kept
+   * by this group otherwise
+   *
+   * @param index index of the motor
+   * @param capacity number of samples held before the oldest are overwritten
+   * @return the sample queue, the existing one if already enabled
+   */
+  public MotorSampleQueue enableSampleQueue(int index, int capacity) {
+    MotorSampleQueue queue = getSampleQueue(index);
+    if (queue != null) return queue;
+    queue = motors[index].enableSampleQueue(capacity);
+    if (queue == null) {
+      queue = new MotorSampleQueue(capacity);
+      groupQueues[index] = queue;
+    }
+    return queue;
+  }
+
+  /**
+   * Gets the sample queue of one motor
+   *
+   * @param index index of the motor
+   * @return the motor's queue or the one kept by this group, null if not enabled
+   */
+  public MotorSampleQueue getSampleQueue(int index) {
+    MotorSampleQueue queue = motors[index].getSampleQueue();
+    return queue != null ? queue : groupQueues[index];
+  }
+
+  /**
+   * Waits for fresh TalonFX signals instead of taking the latest ones, so every TalonFX in the
+   * group is sampled at the same time. Only effective for signals on a CANivore with time
+   * synchronisation, otherwise the wait lasts until every signal has updated.
+   *
+   * @param timeoutSeconds maximum time to wait each refresh, 0 to disable
+   */
+  public void setSynchronized(double timeoutSeconds) {
+    this.synchronizationTimeout = timeoutSeconds;
+  }
+
+  /**
+   * Extrapolates TalonFX positions by their velocity to the time of the refresh, compensating for
+   * CAN latency
+   *
+   * @param enabled true to compensate
+   */
+  public void setLatencyCompensation(boolean enabled) {
+    this.latencyCompensation = enabled;
+  }
+
+  /** Refreshes the telemetry of every motor in the group into the snapshot arrays */
+  public void refresh() {
+    if (talonSignals.length > 0) {
+      if (synchronizationTimeout > 0) {
+        BaseStatusSignal.waitForAll(synchronizationTimeout, talonSignals);
+      } else {
+        BaseStatusSignal.refreshAll(talonSignals);
+      }
+    }
+
+    double now = clock.getAsDouble();
+    for (int i = 0; i < motors.length; i++) {
+      CrewmateTalonFX talon = talons[i];
+      if (talon != null) {
+        StatusSignal<Double> position = positionSignals[i];
+        StatusSignal<Double> velocity = velocitySignals[i];
+        if (ownSignals) {
+          talon.checkSignals(position.getStatus());
+        } else {
+          talon.markRefreshed(now);
+        }
+        positions[i] =
+            latencyCompensation
+                ? BaseStatusSignal.getLatencyCompensatedValue(position, velocity)
+                : position.getValueAsDouble();
+        // Moved from the Phoenix timebase onto the clock's by the measurement's age
+        timestamps[i] = latencyCompensation ? now : now - position.getTimestamp().getLatency();
+        velocities[i] = velocity.getValueAsDouble();
+        currents[i] = currentSignals[i].getValueAsDouble();
+      } else {
+        motors[i].refreshSignals();
+        positions[i] = motors[i].getPosition();
+        timestamps[i] = now;
+        velocities[i] = motors[i].getVelocity();
+        currents[i] = motors[i].getCurrent();
+      }
+
+      MotorSampleQueue queue = getSampleQueue(i);
+      if (queue != null) {
+        queue.add(timestamps[i], positions[i], velocities[i]);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of motors in the group
+   *
+   * @return number of motors
+   */
+  public int size() {
+    return motors.length;
+  }
+
+  /**
+   * Gets a motor in the group
+   *
+   * @param index index of the motor
+   * @return the motor
+   */
+  public CrewmateMotor getMotor(int index) {
+    return motors[index];
+  }
+
+  /**
+   * Positions from the last refresh, indexed like the constructor arguments. The array is reused by
+   * every refresh and must not be modified.
+   *
+   * @return positions, in units provided through conversion factors
+   */
+  public double[] getPositions() {
+    return positions;
+  }
+
+  /**
+   * Velocities from the last refresh, indexed like the constructor arguments. The array is reused
+   * by every refresh and must not be modified.
+   *
+   * @return velocities, in units provided through conversion factors
+   */
+  public double[] getVelocities() {
+    return velocities;
+  }
+
+  /**
+   * Current draws from the last refresh, indexed like the constructor arguments. The array is
+   * reused by every refresh and must not be modified.
+   *
+   * @return Amps drawn
+   */
+  public double[] getCurrents() {
+    return currents;
+  }
+
+  /**
+   * Times each position in the last refresh was measured, indexed like the constructor arguments.
+   * TalonFX measurement times are converted from the Phoenix timebase, so every entry and every
+   * queued sample shares one clock. The array is reused by every refresh and must not be modified.
+   *
+   * @return timestamps, in seconds on the FPGA timebase
+   */
+  public double[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * Gets one position from the last refresh
+   *
+   * @param index index of the motor
+   * @return position, in units provided through conversion factors
+   */
+  public double getPosition(int index) {
+    return positions[index];
+  }
+
+  /**
+   * Gets one velocity from the last refresh
+   *
+   * @param index index of the motor
+   * @return velocity, in units provided through conversion factors
+   */
+  public double getVelocity(int index) {
+    return velocities[index];
+  }
+
+  /**
+   * Gets one current draw from the last refresh
+   *
+   * @param index index of the motor
+   * @return Amps drawn
+   */
+  public double getCurrent(int index) {
+    return currents[index];
+  }
+}
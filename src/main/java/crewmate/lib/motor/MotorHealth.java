@@ -0,0 +1,188 @@
+package crewmate.lib.motor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Per-motor timing and error counters, published through AdvantageKit
+ *
+ * <p>The hardware motors time every blocking read, write and config apply, and count CAN errors,
+ * timeouts and stale signals. {@link #publishAll()} logs every motor's metrics under {@code
+ * MotorHealth/<name>} once per loop, including the worst and total time spent in each kind of call
+ * since the previous publish, so a loop overrun can be traced to the motor that caused it.
+ */
+public class MotorHealth implements AutoCloseable {
+  private static final String TABLE_KEY = "MotorHealth";
+  private static final List<MotorHealth> REGISTERED = new CopyOnWriteArrayList<>();
+
+  // Keys built once so publishing does not concatenate strings every loop
+  private final String readKey;
+  private final String maxReadKey;
+  private final String totalReadKey;
+  private final String writeKey;
+  private final String maxWriteKey;
+  private final String totalWriteKey;
+  private final String configApplyKey;
+  private final String errorsKey;
+  private final String timeoutsKey;
+  private final String staleKey;
+  private final String lastErrorKey;
+
+  private double lastReadMs = 0.0;
+  private double maxReadMs = 0.0; // since last publish
+  private double totalReadMs = 0.0; // since last publish
+  private double lastWriteMs = 0.0;
+  private double maxWriteMs = 0.0;
+  private double totalWriteMs = 0.0;
+  private double lastConfigApplyMs = 0.0;
+
+  private long errorCount = 0;
+  private long timeoutCount = 0;
+  private long staleCount = 0;
+  private String lastError = "";
+
+  /**
+   * Creates health counters for a motor and registers them for {@link #publishAll()}
+   *
+   * @param name name to log under, such as {@code TalonFX/3}
+   */
+  public MotorHealth(String name) {
+    String key = TABLE_KEY + "/" + name;
+    readKey = key + "/ReadLatencyMs";
+    maxReadKey = key + "/MaxReadLatencyMs";
+    totalReadKey = key + "/TotalReadMs";
+    writeKey = key + "/WriteLatencyMs";
+    maxWriteKey = key + "/MaxWriteLatencyMs";
+    totalWriteKey = key + "/TotalWriteMs";
+    configApplyKey = key + "/ConfigApplyMs";
+    errorsKey = key + "/Errors";
+    timeoutsKey = key + "/Timeouts";
+    staleKey = key + "/StaleReads";
+    lastErrorKey = key + "/LastError";
+    REGISTERED.add(this);
+  }
+
+  /**
+   * Gets a start time for one of the record methods
+   *
+   * @return current time in nanoseconds
+   */
+  public static long start() {
+    return System.nanoTime();
+  }
+
+  private static double elapsedMs(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1E6;
+  }
+
+  /**
+   * Records a read that started at the given time
+   *
+   * @param startNanos value of {@link #start()} before the read
+   */
+  public synchronized void recordRead(long startNanos) {
+    lastReadMs = elapsedMs(startNanos);
+    maxReadMs = Math.max(maxReadMs, lastReadMs);
+    totalReadMs += lastReadMs;
+  }
+
+  /**
+   * Records a write that started at the given time
+   *
+   * @param startNanos value of {@link #start()} before the write
+   */
+  public synchronized void recordWrite(long startNanos) {
+    lastWriteMs = elapsedMs(startNanos);
+    maxWriteMs = Math.max(maxWriteMs, lastWriteMs);
+    totalWriteMs += lastWriteMs;
+  }
+
+  /**
+   * Records a config apply that started at the given time
+   *
+   * @param startNanos value of {@link #start()} before the apply
+   */
+  public synchronized void recordConfigApply(long startNanos) {
+    lastConfigApplyMs = elapsedMs(startNanos);
+  }
+
+  /**
+   * Records an error reported by the motor controller
+   *
+   * @param error name of the error
+   * @param timeout true if the error was a CAN timeout
+   */
+  public synchronized void recordError(String error, boolean timeout) {
+    errorCount++;
+    if (timeout) timeoutCount++;
+    lastError = error;
+  }
+
+  /** Records a read that returned data the controller had not updated in time */
+  public synchronized void recordStale() {
+    staleCount++;
+  }
+
+  public synchronized long getErrorCount() {
+    return errorCount;
+  }
+
+  public synchronized long getTimeoutCount() {
+    return timeoutCount;
+  }
+
+  public synchronized long getStaleCount() {
+    return staleCount;
+  }
+
+  public synchronized String getLastError() {
+    return lastError;
+  }
+
+  public synchronized double getLastConfigApplyMs() {
+    return lastConfigApplyMs;
+  }
+
+  /** Logs this motor's metrics and starts a new window for the per-loop maximums and totals */
+  public synchronized void publish() {
+    Logger.recordOutput(readKey, lastReadMs);
+    Logger.recordOutput(maxReadKey, maxReadMs);
+    Logger.recordOutput(totalReadKey, totalReadMs);
+    Logger.recordOutput(writeKey, lastWriteMs);
+    Logger.recordOutput(maxWriteKey, maxWriteMs);
+    Logger.recordOutput(totalWriteKey, totalWriteMs);
+    Logger.recordOutput(configApplyKey, lastConfigApplyMs);
+    Logger.recordOutput(errorsKey, errorCount);
+    Logger.recordOutput(timeoutsKey, timeoutCount);
+    Logger.recordOutput(staleKey, staleCount);
+    Logger.recordOutput(lastErrorKey, lastError);
+
+    maxReadMs = 0.0;
+    totalReadMs = 0.0;
+    maxWriteMs = 0.0;
+    totalWriteMs = 0.0;
+  }
+
+  /** Stops publishing this motor's metrics from {@link #publishAll()}, for motors that are freed */
+  @Override
+  public void close() {
+    REGISTERED.remove(this);
+  }
+
+  /**
+   * Checks if {@link #publishAll()} publishes this motor's metrics
+   *
+   * @return true until closed
+   */
+  public boolean isRegistered() {
+    return REGISTERED.contains(this);
+  }
+
+  /** Publishes every motor's metrics, call once per loop */
+  public static void publishAll() {
+    for (MotorHealth health : REGISTERED) {
+      health.publish();
+    }
+  }
+}
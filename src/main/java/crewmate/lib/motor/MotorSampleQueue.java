@@ -0,0 +1,108 @@
+package crewmate.lib.motor;
+
+/**
+ * Fixed capacity ring buffer of timestamped motor samples
+ *
+ * <p>Filled by {@link MotorGroup#refresh()} (and so by a {@link MotorTelemetrySampler}) for motors
+ * that have a queue enabled, and drained by the consumer once per loop. Samples are stored in
+ * primitive arrays and drained into caller arrays, so neither side allocates. When the consumer
+ * falls behind the oldest samples are overwritten and counted as dropped.
+ */
+public class MotorSampleQueue {
+  private final double[] timestamps;
+  private final double[] positions;
+  private final double[] velocities;
+  private int head = 0; // index of the oldest sample
+  private int size = 0;
+  private long dropped = 0;
+  private double lastTimestamp = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Creates an empty queue
+   *
+   * @param capacity number of samples held before the oldest are overwritten
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  public MotorSampleQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    timestamps = new double[capacity];
+    positions = new double[capacity];
+    velocities = new double[capacity];
+  }
+
+  /**
+   * Adds a sample. Samples that are not newer than the last one added are ignored, so the same
+   * measurement read twice is only queued once.
+   *
+   * @param timestamp time the sample was measured, in seconds
+   * @param position position, in units provided through conversion factors
+   * @param velocity velocity, in units provided through conversion factors
+   * @return true if the sample was queued
+   */
+  public synchronized boolean add(double timestamp, double position, double velocity) {
+    if (!(timestamp > lastTimestamp)) return false;
+    lastTimestamp = timestamp;
+
+    int index;
+    if (size == timestamps.length) {
+      index = head;
+      head = (head + 1) % timestamps.length;
+      dropped++;
+    } else {
+      index = (head + size) % timestamps.length;
+      size++;
+    }
+    timestamps[index] = timestamp;
+    positions[index] = position;
+    velocities[index] = velocity;
+    return true;
+  }
+
+  /**
+   * Removes samples, oldest first, into the given arrays. If the arrays are shorter than the queue
+   * the newer samples stay queued for the next drain.
+   *
+   * @param timestamps array to receive timestamps
+   * @param positions array to receive positions
+   * @param velocities array to receive velocities
+   * @return number of samples written into the arrays
+   */
+  public synchronized int drain(double[] timestamps, double[] positions, double[] velocities) {
+    int count = Math.min(size, timestamps.length);
+    count = Math.min(count, Math.min(positions.length, velocities.length));
+    for (int n = 0; n < count; n++) {
+      int index = (head + n) % this.timestamps.length;
+      timestamps[n] = this.timestamps[index];
+      positions[n] = this.positions[index];
+      velocities[n] = this.velocities[index];
+    }
+    head = (head + count) % this.timestamps.length;
+    size -= count;
+    return count;
+  }
+
+  /** Removes every queued sample */
+  public synchronized void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return timestamps.length;
+  }
+
+  /**
+   * Number of samples overwritten before they were drained
+   *
+   * @return dropped samples
+   */
+  public synchronized long getDroppedCount() {
+    return dropped;
+  }
+}
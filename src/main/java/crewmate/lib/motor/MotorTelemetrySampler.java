@@ -0,0 +1,222 @@
+package crewmate.lib.motor;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples a fixed set of motors on a background {@link Notifier}
+ *
+ * <p>Every period the motors are refreshed together through a {@link MotorGroup} and the results
+ * are published into one of two alternating buffers. Readers copy the latest buffer with {@link
+ * #read(Sample)} without taking a lock and without ever blocking the sampler; if a copy overlaps a
+ * write to the same buffer it is simply retried. Control code gets fresh telemetry without making
+ * blocking reads, and odometry can run off samples taken faster than the main loop.
+ *
+ * <p>TalonFX motors are sampled through copies of their status signals, so the sampler never
+ * refreshes a signal the main thread is reading. Other motors are read through their getters, which
+ * for the Spark MAX and sim motors are safe to call from the sampler thread. A TalonFX must be
+ * passed directly rather than wrapped to get its own signal copies.
+ */
+public class MotorTelemetrySampler implements AutoCloseable {
+  private static final double DEFAULT_RATE = 250.0; // Hz
+
+  /** A copy of one sampling pass, meant to be allocated once with {@link #newSample()} */
+  public static final class Sample {
+    final double[] positions;
+    final double[] velocities;
+    final double[] currents;
+    final double[] timestamps;
+    double sampleTime = Double.NaN;
+    long sequence = 0;
+
+    private Sample(int size) {
+      positions = new double[size];
+      velocities = new double[size];
+      currents = new double[size];
+      timestamps = new double[size];
+    }
+
+    private void copyFrom(Sample other) {
+      System.arraycopy(other.positions, 0, positions, 0, positions.length);
+      System.arraycopy(other.velocities, 0, velocities, 0, velocities.length);
+      System.arraycopy(other.currents, 0, currents, 0, currents.length);
+      System.arraycopy(other.timestamps, 0, timestamps, 0, timestamps.length);
+      sampleTime = other.sampleTime;
+      sequence = other.sequence;
+    }
+
+    public double getPosition(int index) {
+      return positions[index];
+    }
+
+    public double getVelocity(int index) {
+      return velocities[index];
+    }
+
+    public double getCurrent(int index) {
+      return currents[index];
+    }
+
+    /**
+     * Gets the time a motor's values were measured
+     *
+     * @param index motor index
+     * @return timestamp in seconds
+     */
+    public double getTimestamp(int index) {
+      return timestamps[index];
+    }
+
+    /**
+     * Gets the time the sampling pass ran
+     *
+     * @return time in seconds from the sampler's clock, NaN if no pass has run
+     */
+    public double getSampleTime() {
+      return sampleTime;
+    }
+
+    /**
+     * Gets the number of the sampling pass, increasing by one each pass
+     *
+     * @return sequence number, 0 if no pass has run
+     */
+    public long getSequence() {
+      return sequence;
+    }
+  }
+
+  private final MotorGroup group;
+  private final DoubleSupplier clock;
+  private final Sample[] buffers;
+  private final AtomicLong published = new AtomicLong(); // sequence of the latest complete sample
+  private Notifier notifier; // created on first start, so sampling manually needs no HAL
+  private boolean running = false;
+
+  /**
+   * Creates a sampler timestamped with the FPGA clock, which does nothing until {@link #start()} is
+   * called
+   *
+   * @param motors motors to sample, sample indices follow this order
+   */
+  public MotorTelemetrySampler(CrewmateMotor... motors) {
+    this(Timer::getFPGATimestamp, motors);
+  }
+
+  /**
+   * Creates a sampler using a custom clock, which does nothing until {@link #start()} is called
+   *
+   * @param clock time source in seconds, on the same timebase as TalonFX signal timestamps
+   * @param motors motors to sample, sample indices follow this order
+   */
+  public MotorTelemetrySampler(DoubleSupplier clock, CrewmateMotor... motors) {
+    this.group = new MotorGroup(clock, true, motors);
+    this.clock = clock;
+    this.buffers = new Sample[] {new Sample(motors.length), new Sample(motors.length)};
+  }
+
+  /**
+   * Gets the group sampled by this sampler, to configure synchronisation or latency compensation
+   * before starting
+   *
+   * @return motor group
+   */
+  public MotorGroup getGroup() {
+    return group;
+  }
+
+  /** Starts sampling at the default rate of 250 Hz */
+  public void start() {
+    start(DEFAULT_RATE);
+  }
+
+  /**
+   * Starts sampling
+   *
+   * @param rateHz sampling rate, 200 to 1000 Hz is typical
+   * @throws IllegalArgumentException if the rate is not positive
+   */
+  public synchronized void start(double rateHz) {
+    if (!(rateHz > 0)) {
+      throw new IllegalArgumentException("Sampling rate must be positive");
+    }
+    if (notifier == null) {
+      notifier = new Notifier(this::sample);
+      notifier.setName("MotorTelemetrySampler");
+    }
+    notifier.startPeriodic(1.0 / rateHz);
+    running = true;
+  }
+
+  /** Stops sampling, the last sample stays readable */
+  public synchronized void stop() {
+    if (notifier != null) notifier.stop();
+    running = false;
+  }
+
+  public synchronized boolean isRunning() {
+    return running;
+  }
+
+  /** Runs one sampling pass. Called by the notifier, or directly when sampling manually */
+  public synchronized void sample() {
+    long next = published.get() + 1;
+    Sample buffer = buffers[(int) (next & 1)];
+
+    group.refresh();
+    System.arraycopy(group.getPositions(), 0, buffer.positions, 0, group.size());
+    System.arraycopy(group.getVelocities(), 0, buffer.velocities, 0, group.size());
+    System.arraycopy(group.getCurrents(), 0, buffer.currents, 0, group.size());
+    System.arraycopy(group.getTimestamps(), 0, buffer.timestamps, 0, group.size());
+    buffer.sampleTime = clock.getAsDouble();
+    buffer.sequence = next;
+
+    published.set(next);
+  }
+
+  /**
+   * Creates a sample sized for this sampler
+   *
+   * @return empty sample
+   */
+  public Sample newSample() {
+    return new Sample(group.size());
+  }
+
+  /**
+   * Copies the latest sample without blocking the sampler
+   *
+   * @param out sample to fill, created by {@link #newSample()}
+   */
+  public void read(Sample out) {
+    while (true) {
+      long sequence = published.get();
+      out.copyFrom(buffers[(int) (sequence & 1)]);
+      VarHandle.acquireFence();
+      // the sampler only starts rewriting this buffer after publishing the next sample
+      if (published.get() == sequence) return;
+    }
+  }
+
+  /**
+   * Gets the sequence number of the latest sample, to check for new data without copying
+   *
+   * @return sequence number, 0 if no pass has run
+   */
+  public long getSequence() {
+    return published.get();
+  }
+
+  public int size() {
+    return group.size();
+  }
+
+  @Override
+  public synchronized void close() {
+    stop();
+    if (notifier != null) notifier.close();
+  }
+}
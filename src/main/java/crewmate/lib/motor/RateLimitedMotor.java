@@ -0,0 +1,320 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Wraps a CrewmateMotor to cut down CAN traffic from output writes
+ *
+ * <p>Calls to {@link #set(double)}, {@link #setVoltage(double)} and {@link #setSetpoint(double,
+ * ControlType)} are suppressed when they would resend the last written output within an epsilon,
+ * and the wrapped motor is written at most a fixed number of times per second. A write that is held
+ * back by the rate limit is kept and sent by the next call or {@link #flush()}. Stops, and changes
+ * of output kind or control type, are never held back by the rate limit.
+ *
+ * <p>With coalescing enabled, writes are only recorded and {@link #flush()} sends the last one, so
+ * a loop where several commands set the same motor costs a single CAN frame. In either mode, call
+ * {@link #flush()} once per loop after the command scheduler runs, for example at the end of {@code
+ * robotPeriodic}, so a held back write is always sent.
+ *
+ * <p>Gains, current limits and brake mode are passed straight through.
+ */
+public class RateLimitedMotor implements CrewmateMotor {
+  private static final double DEFAULT_EPSILON = 1E-4;
+  private static final double DEFAULT_MAX_WRITE_RATE = 100.0; // Hz
+
+  private enum WriteKind {
+    NONE,
+    DUTYCYCLE,
+    VOLTAGE,
+    SETPOINT
+  }
+
+  private final CrewmateMotor motor;
+  private final DoubleSupplier clock;
+  private final double epsilon;
+  private final double minWritePeriod;
+  private double keepAlivePeriod = Double.POSITIVE_INFINITY;
+  private boolean coalescing = false;
+
+  private WriteKind pendingKind = WriteKind.NONE;
+  private double pendingValue;
+  private ControlType pendingControlType;
+  private double requestedSetpoint;
+
+  private WriteKind sentKind = WriteKind.NONE;
+  private double sentValue;
+  private ControlType sentControlType;
+  private double lastWriteTime = Double.NEGATIVE_INFINITY;
+
+  private long sentCount = 0;
+  private long suppressedCount = 0;
+
+  /**
+   * Wraps a motor with the default epsilon (1E-4) and write rate (100 Hz)
+   *
+   * @param motor motor to wrap
+   */
+  public RateLimitedMotor(CrewmateMotor motor) {
+    this(motor, DEFAULT_EPSILON, DEFAULT_MAX_WRITE_RATE);
+  }
+
+  /**
+   * Wraps a motor
+   *
+   * @param motor motor to wrap
+   * @param epsilon smallest output change that is written
+   * @param maxWritesPerSecond most writes sent to the motor per second
+   */
+  public RateLimitedMotor(CrewmateMotor motor, double epsilon, double maxWritesPerSecond) {
+    this(motor, epsilon, maxWritesPerSecond, Timer::getFPGATimestamp);
+  }
+
+  /**
+   * Wraps a motor using a custom clock
+   *
+   * @param motor motor to wrap
+   * @param epsilon smallest output change that is written
+   * @param maxWritesPerSecond most writes sent to the motor per second
+   * @param clock time source in seconds
+   * @throws IllegalArgumentException if epsilon is negative or the write rate is not positive
+   */
+  public RateLimitedMotor(
+      CrewmateMotor motor, double epsilon, double maxWritesPerSecond, DoubleSupplier clock) {
+    if (epsilon < 0) {
+      throw new IllegalArgumentException("Epsilon must not be negative");
+    }
+    if (!(maxWritesPerSecond > 0)) {
+      throw new IllegalArgumentException("Max write rate must be positive");
+    }
+    this.motor = motor;
+    this.epsilon = epsilon;
+    this.minWritePeriod = 1.0 / maxWritesPerSecond;
+    this.clock = clock;
+  }
+
+  /**
+   * Sets whether writes are held until {@link #flush()} instead of being sent immediately
+   *
+   * @param coalescing true to only send writes from {@link #flush()}
+   */
+  public void setCoalescing(boolean coalescing) {
+    this.coalescing = coalescing;
+  }
+
+  /**
+   * Resends an unchanged output if nothing has been written for this long, for controllers that
+   * should periodically hear from the robot. Disabled by default
+   *
+   * @param seconds keep alive period
+   */
+  public void setKeepAlivePeriod(double seconds) {
+    this.keepAlivePeriod = seconds;
+  }
+
+  /**
+   * Sends the most recent write if it changes the output and the rate limit allows it
+   *
+   * @return true if a write was sent to the motor
+   */
+  public synchronized boolean flush() {
+    double now = clock.getAsDouble();
+    if (pendingKind == WriteKind.NONE) {
+      if (sentKind == WriteKind.NONE || now - lastWriteTime < keepAlivePeriod) return false;
+      pendingKind = sentKind;
+      pendingValue = sentValue;
+      pendingControlType = sentControlType;
+    } else if (isRedundant() && now - lastWriteTime < keepAlivePeriod) {
+      pendingKind = WriteKind.NONE;
+      suppressedCount++;
+      return false;
+    }
+    if (!isUrgent() && now - lastWriteTime < minWritePeriod) return false;
+
+    switch (pendingKind) {
+      case DUTYCYCLE -> motor.set(pendingValue);
+      case VOLTAGE -> motor.setVoltage(pendingValue);
+      case SETPOINT -> motor.setSetpoint(pendingValue, pendingControlType);
+      case NONE -> {}
+    }
+    sentKind = pendingKind;
+    sentValue = pendingValue;
+    sentControlType = pendingControlType;
+    pendingKind = WriteKind.NONE;
+    lastWriteTime = now;
+    sentCount++;
+    return true;
+  }
+
+  /** Writes that must not wait for the rate limit: a stop, or a new output kind or control type */
+  private boolean isUrgent() {
+    if (pendingKind != sentKind || pendingControlType != sentControlType) return true;
+    return pendingValue == 0.0 && sentValue != 0.0;
+  }
+
+  private boolean isRedundant() {
+    if (pendingKind != sentKind || pendingControlType != sentControlType) return false;
+    if (pendingValue == 0.0 && sentValue != 0.0) return false; // always let a stop through
+    return Math.abs(pendingValue - sentValue) <= epsilon;
+  }
+
+  private synchronized void request(WriteKind kind, double value, ControlType controlType) {
+    if (pendingKind != WriteKind.NONE) suppressedCount++; // replaced before it was sent
+    pendingKind = kind;
+    pendingValue = value;
+    pendingControlType = controlType;
+    if (!coalescing) flush();
+  }
+
+  /**
+   * Number of writes sent to the wrapped motor
+   *
+   * @return sent writes
+   */
+  public synchronized long getSentCount() {
+    return sentCount;
+  }
+
+  /**
+   * Number of writes that were dropped as redundant or replaced by a later write
+   *
+   * @return suppressed writes
+   */
+  public synchronized long getSuppressedCount() {
+    return suppressedCount;
+  }
+
+  /**
+   * Gets the wrapped motor
+   *
+   * @return motor
+   */
+  public CrewmateMotor getMotor() {
+    return motor;
+  }
+
+  @Override
+  public void set(double throttle) {
+    request(WriteKind.DUTYCYCLE, throttle, null);
+  }
+
+  @Override
+  public void setVoltage(double voltage) {
+    request(WriteKind.VOLTAGE, voltage, null);
+  }
+
+  @Override
+  public void setSetpoint(double setpoint, ControlType controlType) {
+    synchronized (this) {
+      requestedSetpoint = setpoint;
+    }
+    request(WriteKind.SETPOINT, setpoint, controlType);
+  }
+
+  /**
+   * Gets the most recently requested setpoint, which may not have been sent yet
+   *
+   * @return requested setpoint
+   */
+  @Override
+  public synchronized double getSetpoint() {
+    return requestedSetpoint;
+  }
+
+  @Override
+  public void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {
+    motor.setMotionProfileConstraints(maxVelocity, maxAcceleration);
+  }
+
+  /** Reads the setpoint the wrapped motor is actually running */
+  @Override
+  public void readSetpoint(SetpointStore.Snapshot out) {
+    motor.readSetpoint(out);
+  }
+
+  @Override
+  public double getPosition() {
+    return motor.getPosition();
+  }
+
+  @Override
+  public double getVelocity() {
+    return motor.getVelocity();
+  }
+
+  @Override
+  public double getCurrent() {
+    return motor.getCurrent();
+  }
+
+  @Override
+  public void refreshSignals() {
+    motor.refreshSignals();
+  }
+
+  @Override
+  public MotorSampleQueue enableSampleQueue(int capacity) {
+    return motor.enableSampleQueue(capacity);
+  }
+
+  @Override
+  public MotorSampleQueue getSampleQueue() {
+    return motor.getSampleQueue();
+  }
+
+  @Override
+  public MotorHealth getHealth() {
+    return motor.getHealth();
+  }
+
+  @Override
+  public Controller getControllerType() {
+    return motor.getControllerType();
+  }
+
+  @Override
+  public void setP(double p) {
+    motor.setP(p);
+  }
+
+  @Override
+  public void setI(double i) {
+    motor.setI(i);
+  }
+
+  @Override
+  public void setD(double d) {
+    motor.setD(d);
+  }
+
+  @Override
+  public void setPID(double p, double i, double d) {
+    motor.setPID(p, i, d);
+  }
+
+  @Override
+  public double getP() {
+    return motor.getP();
+  }
+
+  @Override
+  public double getI() {
+    return motor.getI();
+  }
+
+  @Override
+  public double getD() {
+    return motor.getD();
+  }
+
+  @Override
+  public void setCurrentLimit(int limit) {
+    motor.setCurrentLimit(limit);
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    motor.setBrakeMode(brake);
+  }
+}
@@ -0,0 +1,311 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+
+/**
+ * Relay feedback (Astrom-Hagglund) PID auto-tuner
+ *
+ * <p>Drives a motor with a duty cycle relay around a target position or velocity, which makes the
+ * mechanism oscillate at its ultimate period. The period and amplitude of the oscillation give the
+ * ultimate gain {@code Ku = 4d / (pi * sqrt(a^2 - h^2))} for relay amplitude d, oscillation
+ * amplitude a and hysteresis h, and a tuning {@link Rule} turns Ku and the ultimate period Tu into
+ * PID gains.
+ *
+ * <p>Gains are computed in duty cycle per unit of error, the units of the onboard controllers, and
+ * converted to the time base of the motor's controller: the SPARK MAX integrates and
+ * differentiates per 1 ms controller period, while the TalonFX and the simulated motor use seconds.
+ *
+ * <p>Call {@link #update(double)} every loop after {@link #start()}, or run headless against a
+ * simulated motor with {@link #runSimulated(CrewmateSimMotor, double)}, then {@link #apply()}.
+ */
+public class RelayAutoTuner {
+  private static final double SPARK_MAX_PERIOD = 0.001; // seconds per onboard PID step
+
+  /** Rules turning the ultimate gain and period into PID gains */
+  public enum Rule {
+    /** Classic Ziegler-Nichols, fast with noticeable overshoot */
+    ZIEGLER_NICHOLS(0.6, 1.2, 0.075),
+    /** Less aggressive Ziegler-Nichols variant with some overshoot */
+    SOME_OVERSHOOT(0.33, 0.66, 0.11),
+    /** Ziegler-Nichols variant with little to no overshoot */
+    NO_OVERSHOOT(0.2, 0.4, 0.0667),
+    /** Tyreus-Luyben, conservative and robust to model error */
+    TYREUS_LUYBEN(0.4545, 0.2066, 0.0722);
+
+    final double p; // times Ku
+    final double i; // times Ku / Tu
+    final double d; // times Ku * Tu
+
+    Rule(double p, double i, double d) {
+      this.p = p;
+      this.i = i;
+      this.d = d;
+    }
+  }
+
+  /** State of the tuning run */
+  public enum State {
+    IDLE,
+    RUNNING,
+    DONE,
+    FAILED
+  }
+
+  private final CrewmateMotor motor;
+  private final ControlType measurement;
+  private final double target;
+  private final double relayAmplitude;
+
+  private double hysteresis = 0.0;
+  private double bias = 0.0;
+  private int settleCycles = 2;
+  private int measuredCycles = 4;
+  private double timeout = 15.0;
+  private Rule rule = Rule.SOME_OVERSHOOT;
+
+  private State state = State.IDLE;
+  private double startTime;
+  private boolean high;
+  private double lastRise;
+  private double cycleMax;
+  private double cycleMin;
+  private int cycles;
+  private int measured;
+  private double periodSum;
+  private double amplitudeSum;
+
+  private double ultimateGain = Double.NaN;
+  private double ultimatePeriod = Double.NaN;
+
+  /**
+   * Creates a tuner
+   *
+   * @param motor motor to tune, which should not be commanded by anything else while running
+   * @param measurement {@link ControlType#POSITION} or {@link ControlType#VELOCITY}, the loop that
+   *     will use the gains
+   * @param target position or velocity to oscillate around
+   * @param relayAmplitude duty cycle added and subtracted around the bias
+   * @throws IllegalArgumentException if the measurement is not position or velocity, or the
+   *     amplitude is not positive
+   */
+  public RelayAutoTuner(
+      CrewmateMotor motor, ControlType measurement, double target, double relayAmplitude) {
+    if (measurement != ControlType.POSITION && measurement != ControlType.VELOCITY) {
+      throw new IllegalArgumentException("Relay tuning needs a position or velocity measurement");
+    }
+    if (!(relayAmplitude > 0)) {
+      throw new IllegalArgumentException("Relay amplitude must be positive");
+    }
+    this.motor = motor;
+    this.measurement = measurement;
+    this.target = target;
+    this.relayAmplitude = relayAmplitude;
+  }
+
+  /**
+   * Sets the relay hysteresis, which stops sensor noise from switching the relay
+   *
+   * @param hysteresis band around the target, in measurement units
+   */
+  public void setHysteresis(double hysteresis) {
+    this.hysteresis = hysteresis;
+  }
+
+  /**
+   * Sets a constant duty cycle the relay switches around, such as the output holding a velocity or
+   * an arm against gravity
+   *
+   * @param bias duty cycle bias
+   */
+  public void setBias(double bias) {
+    this.bias = bias;
+  }
+
+  /**
+   * Sets how many oscillations are ignored while they settle and how many are averaged
+   *
+   * @param settle cycles ignored, defaults to 2
+   * @param measure cycles averaged, defaults to 4
+   */
+  public void setCycles(int settle, int measure) {
+    this.settleCycles = settle;
+    this.measuredCycles = Math.max(measure, 1);
+  }
+
+  /**
+   * Sets the time after which a run without enough oscillations fails
+   *
+   * @param seconds timeout, defaults to 15 s
+   */
+  public void setTimeout(double seconds) {
+    this.timeout = seconds;
+  }
+
+  public void setRule(Rule rule) {
+    this.rule = rule;
+  }
+
+  /** Starts the relay on the next {@link #update(double)} */
+  public void start() {
+    state = State.RUNNING;
+    startTime = Double.NaN;
+    lastRise = Double.NaN;
+    cycles = 0;
+    measured = 0;
+    periodSum = 0.0;
+    amplitudeSum = 0.0;
+    ultimateGain = Double.NaN;
+    ultimatePeriod = Double.NaN;
+  }
+
+  /**
+   * Advances the relay
+   *
+   * @param timestamp current time in seconds
+   * @return true while the tuner is running
+   */
+  public boolean update(double timestamp) {
+    if (state != State.RUNNING) return false;
+
+    double y = measurement == ControlType.POSITION ? motor.getPosition() : motor.getVelocity();
+    if (Double.isNaN(startTime)) {
+      startTime = timestamp;
+      high = y < target;
+      cycleMax = y;
+      cycleMin = y;
+    }
+    if (timestamp - startTime > timeout) {
+      finish(State.FAILED);
+      return false;
+    }
+
+    cycleMax = Math.max(cycleMax, y);
+    cycleMin = Math.min(cycleMin, y);
+    if (high && y > target + hysteresis) {
+      high = false;
+    } else if (!high && y < target - hysteresis) {
+      high = true;
+      if (onRise(timestamp, y)) return false;
+    }
+
+    motor.set(bias + (high ? relayAmplitude : -relayAmplitude));
+    return true;
+  }
+
+  /** Handles the start of a new cycle, returns true if tuning finished */
+  private boolean onRise(double timestamp, double y) {
+    if (!Double.isNaN(lastRise)) {
+      cycles++;
+      if (cycles > settleCycles) {
+        periodSum += timestamp - lastRise;
+        amplitudeSum += (cycleMax - cycleMin) / 2.0;
+        measured++;
+      }
+    }
+    lastRise = timestamp;
+    cycleMax = y;
+    cycleMin = y;
+
+    if (measured < measuredCycles) return false;
+
+    double amplitude = amplitudeSum / measured;
+    if (amplitude <= hysteresis) {
+      finish(State.FAILED);
+      return true;
+    }
+    ultimatePeriod = periodSum / measured;
+    double effective = Math.sqrt(amplitude * amplitude - hysteresis * hysteresis);
+    ultimateGain = 4.0 * relayAmplitude / (Math.PI * effective);
+    finish(State.DONE);
+    return true;
+  }
+
+  private void finish(State result) {
+    motor.set(0.0);
+    state = result;
+  }
+
+  /**
+   * Runs the whole tuning routine against a simulated motor as fast as the host allows
+   *
+   * @param sim simulated motor, which must be the motor being tuned
+   * @param dtSeconds simulated time between updates
+   * @return true if tuning succeeded
+   */
+  public boolean runSimulated(CrewmateSimMotor sim, double dtSeconds) {
+    start();
+    double time = sim.getSimTime();
+    while (update(time)) {
+      sim.update(dtSeconds);
+      time += dtSeconds;
+    }
+    return state == State.DONE;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Ultimate gain found by the last run
+   *
+   * @return Ku in duty cycle per unit of error, NaN if not tuned
+   */
+  public double getUltimateGain() {
+    return ultimateGain;
+  }
+
+  /**
+   * Ultimate period found by the last run
+   *
+   * @return Tu in seconds, NaN if not tuned
+   */
+  public double getUltimatePeriod() {
+    return ultimatePeriod;
+  }
+
+  /** Seconds per controller step used for the integral and derivative gains */
+  private double controllerPeriod() {
+    if (motor instanceof SoftwarePIDMotor) return 1.0;
+    return motor.getControllerType() == Controller.SPARKMAX ? SPARK_MAX_PERIOD : 1.0;
+  }
+
+  /**
+   * Proportional gain for the motor's controller
+   *
+   * @return P gain, NaN if not tuned
+   */
+  public double getP() {
+    return rule.p * ultimateGain;
+  }
+
+  /**
+   * Integral gain for the motor's controller
+   *
+   * @return I gain, NaN if not tuned
+   */
+  public double getI() {
+    return rule.i * ultimateGain / ultimatePeriod * controllerPeriod();
+  }
+
+  /**
+   * Derivative gain for the motor's controller
+   *
+   * @return D gain, NaN if not tuned
+   */
+  public double getD() {
+    return rule.d * ultimateGain * ultimatePeriod / controllerPeriod();
+  }
+
+  /**
+   * Writes the tuned gains to the motor
+   *
+   * @throws IllegalStateException if the last run did not succeed
+   */
+  public void apply() {
+    if (state != State.DONE) {
+      throw new IllegalStateException("Auto-tune has not completed successfully");
+    }
+    motor.setPID(getP(), getI(), getD());
+  }
+}
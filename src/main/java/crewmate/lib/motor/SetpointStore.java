@@ -0,0 +1,114 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe store for a motor's setpoint that never boxes
+ *
+ * <p>The setpoint is kept as raw double bits in an {@link AtomicLong}, so {@link #get()} is a
+ * single atomic read. The setpoint, its control type and the time it was set can also be read
+ * together through {@link #read(Snapshot)}, which uses a sequence counter (a seqlock) so telemetry
+ * threads never see a setpoint paired with the wrong control type or timestamp and never block the
+ * control thread.
+ */
+public class SetpointStore {
+  /** A consistent copy of the store, meant to be allocated once and reused */
+  public static final class Snapshot {
+    double setpoint;
+    ControlType controlType;
+    double timestamp = Double.NaN;
+
+    public double getSetpoint() {
+      return setpoint;
+    }
+
+    /**
+     * Gets the control type of the setpoint
+     *
+     * @return control type, null if no setpoint has been set
+     */
+    public ControlType getControlType() {
+      return controlType;
+    }
+
+    /**
+     * Gets the time the setpoint was set
+     *
+     * @return timestamp in seconds, NaN if no setpoint has been set
+     */
+    public double getTimestamp() {
+      return timestamp;
+    }
+
+    void set(double setpoint, ControlType controlType, double timestamp) {
+      this.setpoint = setpoint;
+      this.controlType = controlType;
+      this.timestamp = timestamp;
+    }
+  }
+
+  private final AtomicLong sequence = new AtomicLong(); // odd while a write is in progress
+  private final AtomicLong setpointBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+  private volatile ControlType controlType;
+  private volatile double timestamp = Double.NaN;
+
+  /**
+   * Stores a new setpoint
+   *
+   * @param setpoint setpoint value
+   * @param controlType how the setpoint is interpreted
+   * @param timestamp time the setpoint was set, in seconds
+   */
+  public void set(double setpoint, ControlType controlType, double timestamp) {
+    long seq;
+    do {
+      seq = sequence.get();
+    } while ((seq & 1) != 0 || !sequence.compareAndSet(seq, seq + 1));
+
+    setpointBits.set(Double.doubleToRawLongBits(setpoint));
+    this.controlType = controlType;
+    this.timestamp = timestamp;
+    sequence.set(seq + 2);
+  }
+
+  /**
+   * Gets the current setpoint value
+   *
+   * @return setpoint
+   */
+  public double get() {
+    return Double.longBitsToDouble(setpointBits.get());
+  }
+
+  /**
+   * Copies the setpoint, control type and timestamp into a snapshot, all from the same write
+   *
+   * @param out snapshot to fill
+   */
+  public void read(Snapshot out) {
+    while (true) {
+      long before = sequence.get();
+      if ((before & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      double setpoint = Double.longBitsToDouble(setpointBits.get());
+      ControlType type = controlType;
+      double time = timestamp;
+      if (sequence.get() == before) {
+        out.set(setpoint, type, time);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Number of setpoints stored so far
+   *
+   * @return write count
+   */
+  public long writeCount() {
+    return sequence.get() >>> 1;
+  }
+}
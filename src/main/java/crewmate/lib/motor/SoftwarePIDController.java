@@ -0,0 +1,313 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+
+/**
+ * PID controller with feedforward that runs on the roboRIO, for mechanisms whose sensor is not
+ * wired to the motor controller
+ *
+ * <p>Gains use the same units as the onboard controllers of the TalonFX and the simulated motor:
+ * output per unit of error, per unit of error times seconds, and per unit of error per second. The
+ * fixed period given on construction is used by {@link #calculate(double, double)}, so per update
+ * work is a handful of multiplies with no allocation. {@link #calculate(double, double, double)}
+ * takes an explicit period for loops that do not run at a fixed rate.
+ *
+ * <p>The integral is only accumulated while it can still reduce the error (conditional
+ * integration), within an optional integration zone and integrator range. The derivative can be
+ * low pass filtered with a time constant. Feedforward adds {@code kS * sign(v) + kV * v + kG},
+ * where v is the setpoint itself for velocity loops and the rate of change of the setpoint for
+ * position loops.
+ */
+public class SoftwarePIDController {
+  private double kP;
+  private double kI;
+  private double kD;
+  private double kS = 0.0;
+  private double kV = 0.0;
+  private double kG = 0.0;
+
+  private double period;
+  private double invPeriod;
+  private double derivativeTimeConstant = 0.0;
+  private double derivativeAlpha = 1.0;
+
+  private double minOutput = -1.0;
+  private double maxOutput = 1.0;
+  private double minIntegral = Double.NEGATIVE_INFINITY;
+  private double maxIntegral = Double.POSITIVE_INFINITY;
+  private double iZone = Double.POSITIVE_INFINITY;
+  private boolean antiWindup = true;
+
+  private double integral = 0.0;
+  private double derivative = 0.0;
+  private double lastError = 0.0;
+  private double lastSetpoint = 0.0;
+  private boolean hasLast = false;
+  private double output = 0.0;
+
+  /**
+   * Creates a controller
+   *
+   * @param p proportional gain
+   * @param i integral gain
+   * @param d derivative gain
+   * @param periodSeconds time between calls to {@link #calculate(double, double)}
+   * @throws IllegalArgumentException if the period is not positive
+   */
+  public SoftwarePIDController(double p, double i, double d, double periodSeconds) {
+    this.kP = p;
+    this.kI = i;
+    this.kD = d;
+    setPeriod(periodSeconds);
+  }
+
+  /**
+   * Sets the period used by {@link #calculate(double, double)}
+   *
+   * @param seconds time between updates
+   * @throws IllegalArgumentException if the period is not positive
+   */
+  public void setPeriod(double seconds) {
+    if (!(seconds > 0)) {
+      throw new IllegalArgumentException("Period must be positive");
+    }
+    this.period = seconds;
+    this.invPeriod = 1.0 / seconds;
+    this.derivativeAlpha = filterAlpha(seconds);
+  }
+
+  public double getPeriod() {
+    return period;
+  }
+
+  public void setPID(double p, double i, double d) {
+    this.kP = p;
+    this.kI = i;
+    this.kD = d;
+  }
+
+  public void setP(double p) {
+    this.kP = p;
+  }
+
+  public void setI(double i) {
+    this.kI = i;
+  }
+
+  public void setD(double d) {
+    this.kD = d;
+  }
+
+  public double getP() {
+    return kP;
+  }
+
+  public double getI() {
+    return kI;
+  }
+
+  public double getD() {
+    return kD;
+  }
+
+  /**
+   * Sets the feedforward gains
+   *
+   * @param s static gain, output to overcome friction in the direction of motion
+   * @param v velocity gain, output per unit of setpoint velocity
+   * @param g constant gain, such as output to hold an elevator against gravity
+   */
+  public void setFeedforward(double s, double v, double g) {
+    this.kS = s;
+    this.kV = v;
+    this.kG = g;
+  }
+
+  /**
+   * Sets the range the output is clamped to
+   *
+   * @param min minimum output, defaults to -1
+   * @param max maximum output, defaults to 1
+   */
+  public void setOutputRange(double min, double max) {
+    if (min > max) {
+      throw new IllegalArgumentException("Minimum output must not exceed maximum");
+    }
+    this.minOutput = min;
+    this.maxOutput = max;
+  }
+
+  /**
+   * Sets the range the accumulated integral is clamped to
+   *
+   * @param min minimum integral, in units of error times seconds
+   * @param max maximum integral, in units of error times seconds
+   */
+  public void setIntegratorRange(double min, double max) {
+    if (min > max) {
+      throw new IllegalArgumentException("Minimum integral must not exceed maximum");
+    }
+    this.minIntegral = min;
+    this.maxIntegral = max;
+  }
+
+  /**
+   * Sets the error beyond which the integral is cleared, as the IZone of the onboard controllers
+   *
+   * @param zone error magnitude, infinite by default
+   */
+  public void setIZone(double zone) {
+    this.iZone = zone;
+  }
+
+  /**
+   * Sets whether the integral stops accumulating while the output is saturated in the direction of
+   * the error. Enabled by default
+   *
+   * @param enabled true to use conditional integration
+   */
+  public void setAntiWindup(boolean enabled) {
+    this.antiWindup = enabled;
+  }
+
+  /**
+   * Sets the time constant of the low pass filter on the derivative term
+   *
+   * @param seconds filter time constant, 0 to disable
+   */
+  public void setDerivativeFilter(double seconds) {
+    this.derivativeTimeConstant = Math.max(seconds, 0.0);
+    this.derivativeAlpha = filterAlpha(period);
+  }
+
+  private double filterAlpha(double dt) {
+    return dt / (derivativeTimeConstant + dt);
+  }
+
+  /**
+   * Runs one fixed period update of a position or duty cycle loop
+   *
+   * @param measurement measured position
+   * @param setpoint desired position
+   * @return clamped output
+   */
+  public double calculate(double measurement, double setpoint) {
+    return update(setpoint - measurement, setpoint, invPeriod, derivativeAlpha, false);
+  }
+
+  /**
+   * Runs one update with an explicit period
+   *
+   * @param measurement measured value
+   * @param setpoint desired value
+   * @param dtSeconds time since the last update
+   * @return clamped output
+   */
+  public double calculate(double measurement, double setpoint, double dtSeconds) {
+    return update(setpoint - measurement, setpoint, 1.0 / dtSeconds, filterAlpha(dtSeconds), false);
+  }
+
+  /**
+   * Runs one fixed period update of a velocity loop, where the setpoint is the feedforward velocity
+   *
+   * @param measurement measured velocity
+   * @param setpoint desired velocity
+   * @return clamped output
+   */
+  public double calculateVelocity(double measurement, double setpoint) {
+    return update(setpoint - measurement, setpoint, invPeriod, derivativeAlpha, true);
+  }
+
+  /**
+   * Runs one fixed period update of the loop selected by a control type
+   *
+   * @param measurement measured value matching the control type
+   * @param setpoint desired value
+   * @param controlType {@link ControlType#VELOCITY} for a velocity loop, anything else is treated
+   *     as a position loop
+   * @return clamped output
+   */
+  public double calculate(double measurement, double setpoint, ControlType controlType) {
+    boolean velocity = controlType == ControlType.VELOCITY;
+    return update(setpoint - measurement, setpoint, invPeriod, derivativeAlpha, velocity);
+  }
+
+  /**
+   * Runs consecutive fixed period updates over a block of samples, for stepping a simulation or
+   * replaying a log without a call per sample
+   *
+   * @param measurements measured values, one per period
+   * @param setpoints desired values, one per period
+   * @param outputs filled with the output of each update
+   * @param count number of samples to process
+   * @param velocity true for a velocity loop
+   * @return the last output
+   */
+  public double calculate(
+      double[] measurements, double[] setpoints, double[] outputs, int count, boolean velocity) {
+    for (int n = 0; n < count; n++) {
+      double error = setpoints[n] - measurements[n];
+      outputs[n] = update(error, setpoints[n], invPeriod, derivativeAlpha, velocity);
+    }
+    return output;
+  }
+
+  private double update(
+      double error, double setpoint, double invDt, double alpha, boolean velocity) {
+    double setpointRate;
+    if (hasLast) {
+      derivative += alpha * ((error - lastError) * invDt - derivative);
+      setpointRate = (setpoint - lastSetpoint) * invDt;
+    } else {
+      derivative = 0.0;
+      setpointRate = 0.0;
+    }
+    lastError = error;
+    lastSetpoint = setpoint;
+    hasLast = true;
+
+    double feedforwardVelocity = velocity ? setpoint : setpointRate;
+    double feedforward = kS * Math.signum(feedforwardVelocity) + kV * feedforwardVelocity + kG;
+
+    if (Math.abs(error) > iZone) {
+      integral = 0.0;
+    } else {
+      double candidate = integral + error / invDt;
+      candidate = Math.max(minIntegral, Math.min(maxIntegral, candidate));
+      double unclamped = kP * error + kI * candidate + kD * derivative + feedforward;
+      // Hold the integral while the output is saturated and accumulating would push it further
+      boolean saturated =
+          (unclamped > maxOutput && error > 0) || (unclamped < minOutput && error < 0);
+      if (!antiWindup || !saturated) integral = candidate;
+    }
+
+    double raw = kP * error + kI * integral + kD * derivative + feedforward;
+    output = Math.max(minOutput, Math.min(maxOutput, raw));
+    return output;
+  }
+
+  /** Clears the integral and derivative history, call when the loop is re-enabled */
+  public void reset() {
+    integral = 0.0;
+    derivative = 0.0;
+    hasLast = false;
+    output = 0.0;
+  }
+
+  public double getIntegral() {
+    return integral;
+  }
+
+  public double getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Gets the output of the last update
+   *
+   * @return clamped output, 0 after a reset
+   */
+  public double getOutput() {
+    return output;
+  }
+}
@@ -0,0 +1,260 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Wraps a CrewmateMotor to close position and velocity loops on the roboRIO with a {@link
+ * SoftwarePIDController}, using an external sensor or the motor's own
+ *
+ * <p>Position, profiled position and velocity setpoints are held and {@link #update()} writes the
+ * controller output to the motor as a duty cycle, so it must be called once per controller period,
+ * for example from a subsystem's {@code periodic}. Profiled setpoints follow a WPILib trapezoid
+ * profile stepped in {@link #update()}. Gains written through this motor, such as by a {@code
+ * LoggedTunablePID}, go to the software controller. Duty cycle and current setpoints are passed to
+ * the motor's onboard control, and open loop writes stop the software loop.
+ */
+public class SoftwarePIDMotor implements CrewmateMotor {
+  private final CrewmateMotor motor;
+  private final SoftwarePIDController controller;
+  private final DoubleSupplier position;
+  private final DoubleSupplier velocity;
+  private final DoubleSupplier clock;
+
+  private final SetpointStore setpoint = new SetpointStore();
+
+  private boolean closedLoop = false;
+  private ControlType controlType = ControlType.POSITION;
+  private double target = 0.0;
+
+  private TrapezoidProfile profile = null;
+  private TrapezoidProfile.State profileState = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State profileGoal = new TrapezoidProfile.State();
+
+  /**
+   * Wraps a motor, closing the loop on its own encoder
+   *
+   * @param motor motor to drive
+   * @param controller controller run by {@link #update()}
+   */
+  public SoftwarePIDMotor(CrewmateMotor motor, SoftwarePIDController controller) {
+    this(motor, controller, motor::getPosition, motor::getVelocity);
+  }
+
+  /**
+   * Wraps a motor, closing the loop on an external sensor
+   *
+   * @param motor motor to drive
+   * @param controller controller run by {@link #update()}
+   * @param position sensor position, used for position setpoints
+   * @param velocity sensor velocity, used for velocity setpoints
+   */
+  public SoftwarePIDMotor(
+      CrewmateMotor motor,
+      SoftwarePIDController controller,
+      DoubleSupplier position,
+      DoubleSupplier velocity) {
+    this(motor, controller, position, velocity, Timer::getFPGATimestamp);
+  }
+
+  /**
+   * Wraps a motor, closing the loop on an external sensor and using a custom clock
+   *
+   * @param motor motor to drive
+   * @param controller controller run by {@link #update()}
+   * @param position sensor position, used for position setpoints
+   * @param velocity sensor velocity, used for velocity setpoints
+   * @param clock time source in seconds, used to timestamp setpoints
+   */
+  public SoftwarePIDMotor(
+      CrewmateMotor motor,
+      SoftwarePIDController controller,
+      DoubleSupplier position,
+      DoubleSupplier velocity,
+      DoubleSupplier clock) {
+    this.motor = motor;
+    this.controller = controller;
+    this.position = position;
+    this.velocity = velocity;
+    this.clock = clock;
+  }
+
+  /**
+   * Runs one controller period and writes the output, does nothing without a position or velocity
+   * setpoint
+   *
+   * @return output written to the motor
+   */
+  public synchronized double update() {
+    if (!closedLoop) return 0.0;
+    double measurement =
+        controlType == ControlType.VELOCITY ? velocity.getAsDouble() : position.getAsDouble();
+    double reference = target;
+    if (controlType == ControlType.PROFILED_POSITION && profile != null) {
+      profileState = profile.calculate(controller.getPeriod(), profileState, profileGoal);
+      reference = profileState.position;
+    }
+    double output = controller.calculate(measurement, reference, controlType);
+    motor.set(output);
+    return output;
+  }
+
+  public SoftwarePIDController getController() {
+    return controller;
+  }
+
+  /**
+   * Gets the wrapped motor
+   *
+   * @return motor
+   */
+  public CrewmateMotor getMotor() {
+    return motor;
+  }
+
+  @Override
+  public synchronized void set(double throttle) {
+    closedLoop = false;
+    motor.set(throttle);
+  }
+
+  @Override
+  public synchronized void setVoltage(double voltage) {
+    closedLoop = false;
+    motor.setVoltage(voltage);
+  }
+
+  /**
+   * Sets the setpoint, position, profiled position and velocity setpoints are run by {@link
+   * #update()}. A profile starts from rest at the current position, later goals continue it
+   */
+  @Override
+  public synchronized void setSetpoint(double setpoint, ControlType controlType) {
+    switch (controlType) {
+      case POSITION, VELOCITY, PROFILED_POSITION -> {
+        if (!closedLoop || this.controlType != controlType) {
+          controller.reset();
+          profileState = new TrapezoidProfile.State(position.getAsDouble(), 0.0);
+        }
+        closedLoop = true;
+        this.controlType = controlType;
+        target = setpoint;
+        profileGoal.position = setpoint;
+      }
+      case CURRENT, DUTYCYCLE -> {
+        closedLoop = false;
+        motor.setSetpoint(setpoint, controlType);
+      }
+    }
+    this.setpoint.set(setpoint, controlType, clock.getAsDouble());
+  }
+
+  @Override
+  public double getSetpoint() {
+    return setpoint.get();
+  }
+
+  /**
+   * Sets the limits of the profile run by {@link #update()}, until set profiled setpoints are
+   * treated as plain position setpoints
+   */
+  @Override
+  public synchronized void setMotionProfileConstraints(double maxVelocity, double maxAcceleration) {
+    profile = new TrapezoidProfile(new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration));
+  }
+
+  @Override
+  public void readSetpoint(SetpointStore.Snapshot out) {
+    setpoint.read(out);
+  }
+
+  /** Position from the sensor the loop is closed on */
+  @Override
+  public double getPosition() {
+    return position.getAsDouble();
+  }
+
+  /** Velocity from the sensor the loop is closed on */
+  @Override
+  public double getVelocity() {
+    return velocity.getAsDouble();
+  }
+
+  @Override
+  public double getCurrent() {
+    return motor.getCurrent();
+  }
+
+  @Override
+  public void refreshSignals() {
+    motor.refreshSignals();
+  }
+
+  /** Queues the wrapped motor's own samples, not those of an external sensor */
+  @Override
+  public MotorSampleQueue enableSampleQueue(int capacity) {
+    return motor.enableSampleQueue(capacity);
+  }
+
+  @Override
+  public MotorSampleQueue getSampleQueue() {
+    return motor.getSampleQueue();
+  }
+
+  @Override
+  public MotorHealth getHealth() {
+    return motor.getHealth();
+  }
+
+  @Override
+  public Controller getControllerType() {
+    return motor.getControllerType();
+  }
+
+  @Override
+  public synchronized void setP(double p) {
+    controller.setP(p);
+  }
+
+  @Override
+  public synchronized void setI(double i) {
+    controller.setI(i);
+  }
+
+  @Override
+  public synchronized void setD(double d) {
+    controller.setD(d);
+  }
+
+  @Override
+  public synchronized void setPID(double p, double i, double d) {
+    controller.setPID(p, i, d);
+  }
+
+  @Override
+  public synchronized double getP() {
+    return controller.getP();
+  }
+
+  @Override
+  public synchronized double getI() {
+    return controller.getI();
+  }
+
+  @Override
+  public synchronized double getD() {
+    return controller.getD();
+  }
+
+  @Override
+  public void setCurrentLimit(int limit) {
+    motor.setCurrentLimit(limit);
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    motor.setBrakeMode(brake);
+  }
+}
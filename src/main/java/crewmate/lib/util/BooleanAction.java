@@ -0,0 +1,46 @@
+package crewmate.lib.util;
+
+/**
+ * The state and actions of a {@link CommandBoolean}, kept apart from the subsystem so they can be
+ * run without the command scheduler
+ */
+final class BooleanAction {
+  private final Runnable onTrue;
+  private final Runnable onFalse;
+  private final boolean changeOnly;
+
+  private boolean trigger;
+  private boolean applied = false;
+  private boolean appliedState;
+
+  BooleanAction(Runnable onTrue, Runnable onFalse, boolean initState, boolean changeOnly) {
+    this.onTrue = onTrue;
+    this.onFalse = onFalse;
+    this.changeOnly = changeOnly;
+    this.trigger = initState;
+  }
+
+  /** Runs the action for the current state, flipping it afterwards unless change-only */
+  void run() {
+    if (changeOnly) {
+      if (applied && appliedState == trigger) return;
+      applied = true;
+      appliedState = trigger;
+    }
+
+    if (trigger) {
+      onTrue.run();
+    } else {
+      onFalse.run();
+    }
+    if (!changeOnly) trigger = !trigger;
+  }
+
+  void set(boolean state) {
+    trigger = state;
+  }
+
+  boolean get() {
+    return trigger;
+  }
+}
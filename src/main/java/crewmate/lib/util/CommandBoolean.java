@@ -2,25 +2,52 @@ package crewmate.lib.util;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
-// Could Create a CrewmateCentral subsystem to control all crewmate functions
+/**
+ * Runs one of two actions from the scheduler depending on a boolean
+ *
+ * <p>By default the boolean flips every loop and the matching action runs each time. In change-only
+ * mode the boolean only changes through {@link #toggle()} or {@link #set(boolean)}, and an action
+ * only runs on the loop after a change, plus once for the initial state. To host many toggles in a
+ * single subsystem, use a {@link ToggleGroup}.
+ */
 public class CommandBoolean extends SubsystemBase {
-  boolean trigger = false;
-  Runnable onTrue;
-  Runnable onFalse;
+  private final BooleanAction action;
 
   public CommandBoolean(Runnable onTrue, Runnable onFalse, boolean initState) {
-    this.onTrue = onTrue;
-    this.onFalse = onFalse;
-    trigger = initState;
+    this(onTrue, onFalse, initState, false);
+  }
+
+  /**
+   * Creates a command boolean
+   *
+   * @param onTrue action for the true state
+   * @param onFalse action for the false state
+   * @param initState initial state
+   * @param changeOnly true to only run an action after the state changes
+   */
+  public CommandBoolean(Runnable onTrue, Runnable onFalse, boolean initState, boolean changeOnly) {
+    action = new BooleanAction(onTrue, onFalse, initState, changeOnly);
   }
 
   public void periodic() {
+    action.run();
+  }
+
+  /** Flips the state, in change-only mode the matching action runs on the next loop */
+  public void toggle() {
+    action.set(!action.get());
+  }
+
+  /**
+   * Sets the state, in change-only mode the matching action runs on the next loop if it changed
+   *
+   * @param state new state
+   */
+  public void set(boolean state) {
+    action.set(state);
+  }
 
-    if (trigger) {
-      onTrue.run();
-    } else {
-      onFalse.run();
-    }
-    trigger = !trigger;
+  public boolean get() {
+    return action.get();
   }
 }
@@ -0,0 +1,115 @@
+package crewmate.lib.util;
+
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A boolean that only changes once its input has held the new value for a time window
+ *
+ * <p>Use it directly as a {@code Transition} force or blocker so a noisy beam break cannot flip a
+ * state machine back and forth. Reads are based on timestamps rather than calls, so evaluating it
+ * several times in one loop gives the same answer. Uses constant memory and does not allocate.
+ */
+public class DebouncedBoolean implements BooleanSupplier {
+  /** Which changes are delayed */
+  public enum Type {
+    /** Delay false to true, drop to false immediately */
+    RISING,
+    /** Delay true to false, rise to true immediately */
+    FALLING,
+    /** Delay both changes */
+    BOTH
+  }
+
+  private final BooleanSupplier input;
+  private final DoubleSupplier clock;
+  private final double window;
+  private final Type type;
+
+  private boolean state;
+  private double changeStart = Double.NaN;
+
+  /**
+   * Debounces a signal on the FPGA clock
+   *
+   * @param input raw signal
+   * @param windowSeconds time the input must hold a new value
+   * @param type which changes are delayed
+   */
+  public DebouncedBoolean(BooleanSupplier input, double windowSeconds, Type type) {
+    this(input, windowSeconds, type, Timer::getFPGATimestamp);
+  }
+
+  /**
+   * Debounces a signal using a custom clock
+   *
+   * @param input raw signal, may be null if only {@link #update(boolean, double)} is used
+   * @param windowSeconds time the input must hold a new value
+   * @param type which changes are delayed
+   * @param clock time source in seconds
+   * @throws IllegalArgumentException if the window is negative
+   */
+  public DebouncedBoolean(
+      BooleanSupplier input, double windowSeconds, Type type, DoubleSupplier clock) {
+    if (windowSeconds < 0) {
+      throw new IllegalArgumentException("Debounce window cannot be negative.");
+    }
+    this.input = input;
+    this.window = windowSeconds;
+    this.type = type;
+    this.clock = clock;
+    this.state = type == Type.FALLING;
+  }
+
+  /**
+   * Feeds a new input sample
+   *
+   * @param value raw input
+   * @param timestamp time of the sample in seconds
+   * @return debounced value
+   */
+  public boolean update(boolean value, double timestamp) {
+    if (value == state) {
+      changeStart = Double.NaN;
+      return state;
+    }
+    boolean delayed = type == Type.BOTH || (value ? type == Type.RISING : type == Type.FALLING);
+    if (!delayed) {
+      state = value;
+      changeStart = Double.NaN;
+      return state;
+    }
+    if (Double.isNaN(changeStart)) changeStart = timestamp;
+    if (timestamp - changeStart >= window) {
+      state = value;
+      changeStart = Double.NaN;
+    }
+    return state;
+  }
+
+  /** Samples the input at the current time */
+  @Override
+  public boolean getAsBoolean() {
+    return update(input.getAsBoolean(), clock.getAsDouble());
+  }
+
+  /**
+   * Gets the debounced value without sampling the input
+   *
+   * @return last debounced value
+   */
+  public boolean get() {
+    return state;
+  }
+
+  /**
+   * Forces the debounced value and discards any pending change
+   *
+   * @param value new value
+   */
+  public void reset(boolean value) {
+    state = value;
+    changeStart = Double.NaN;
+  }
+}
@@ -0,0 +1,297 @@
+package crewmate.lib.util;
+
+import crewmate.lib.motor.CrewmateMotor;
+import crewmate.lib.motor.CrewmateSimMotor;
+
+/**
+ * SysId-style feedforward characterisation that runs on the robot
+ *
+ * <p>Drives a motor through the four standard tests with {@link CrewmateMotor#setVoltage(double)}:
+ * a quasistatic voltage ramp forwards and backwards, then a dynamic voltage step forwards and
+ * backwards, coasting to rest between tests. Voltage and velocity are recorded into buffers sized
+ * up front, and {@link #fit()} solves for
+ *
+ * <pre>V = kS * sign(v) + kV * v + kA * a</pre>
+ *
+ * <p>with a {@link StreamingLeastSquares} solver, acceleration being estimated by central
+ * differences within each test. Neither recording nor fitting allocates. Gains are in volts per
+ * velocity unit of the motor, as set through its conversion factors.
+ *
+ * <p>The routine is advanced by calling {@link #update(double)} every loop with the current time,
+ * or headless against a simulated motor with {@link #runSimulated(CrewmateSimMotor, double)}. Make
+ * sure the mechanism has room to move for the whole routine.
+ */
+public class FeedforwardCharacterizer {
+  /** Stage of the routine */
+  public enum Phase {
+    IDLE,
+    QUASISTATIC_FORWARD,
+    QUASISTATIC_REVERSE,
+    DYNAMIC_FORWARD,
+    DYNAMIC_REVERSE,
+    DONE
+  }
+
+  private static final double RANK_TOLERANCE = 1E-10;
+
+  private final CrewmateMotor motor;
+  private final double[] times;
+  private final double[] voltages;
+  private final double[] velocities;
+  private final int[] phases;
+  private int count = 0;
+  private long dropped = 0;
+
+  private double rampRate = 1.0; // V/s
+  private double stepVoltage = 7.0;
+  private double quasistaticDuration = 7.0;
+  private double dynamicDuration = 2.5;
+  private double restDuration = 1.5;
+  private double velocityThreshold = 1E-3;
+
+  private Phase phase = Phase.IDLE;
+  private boolean resting = false;
+  private double phaseStart = Double.NaN;
+  private double commandedVoltage = 0.0;
+
+  private final StreamingLeastSquares solver = new StreamingLeastSquares(3);
+  private final double[] gains = new double[3];
+  private double rSquared = Double.NaN;
+  private int fitSamples = 0;
+
+  /**
+   * Creates a characterizer
+   *
+   * @param motor motor to drive, which should not be commanded by anything else while running
+   * @param capacity number of samples to buffer across all four tests
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  public FeedforwardCharacterizer(CrewmateMotor motor, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.motor = motor;
+    this.times = new double[capacity];
+    this.voltages = new double[capacity];
+    this.velocities = new double[capacity];
+    this.phases = new int[capacity];
+  }
+
+  /**
+   * Sets the quasistatic ramp
+   *
+   * @param voltsPerSecond ramp rate, defaults to 1 V/s
+   * @param seconds length of each quasistatic test, defaults to 7 s
+   */
+  public void setQuasistatic(double voltsPerSecond, double seconds) {
+    this.rampRate = voltsPerSecond;
+    this.quasistaticDuration = seconds;
+  }
+
+  /**
+   * Sets the dynamic step
+   *
+   * @param volts step voltage, defaults to 7 V
+   * @param seconds length of each dynamic test, defaults to 2.5 s
+   */
+  public void setDynamic(double volts, double seconds) {
+    this.stepVoltage = volts;
+    this.dynamicDuration = seconds;
+  }
+
+  /**
+   * Sets how long the motor coasts between tests
+   *
+   * @param seconds rest time, defaults to 1.5 s
+   */
+  public void setRestDuration(double seconds) {
+    this.restDuration = seconds;
+  }
+
+  /**
+   * Sets the speed below which samples are left out of the fit, as the direction of friction is
+   * unknown while stationary
+   *
+   * @param threshold velocity threshold, defaults to 1E-3
+   */
+  public void setVelocityThreshold(double threshold) {
+    this.velocityThreshold = threshold;
+  }
+
+  /** Clears recorded samples and starts the routine on the next {@link #update(double)} */
+  public void start() {
+    count = 0;
+    dropped = 0;
+    phase = Phase.QUASISTATIC_FORWARD;
+    resting = false;
+    phaseStart = Double.NaN;
+    commandedVoltage = 0.0;
+  }
+
+  /** Stops the motor and ends the routine, keeping the samples recorded so far */
+  public void stop() {
+    motor.setVoltage(0.0);
+    commandedVoltage = 0.0;
+    phase = Phase.DONE;
+  }
+
+  /**
+   * Advances the routine, recording a sample and commanding the next voltage
+   *
+   * @param timestamp current time in seconds
+   * @return true while the routine is running
+   */
+  public boolean update(double timestamp) {
+    if (phase == Phase.IDLE || phase == Phase.DONE) return false;
+    if (Double.isNaN(phaseStart)) phaseStart = timestamp;
+    double elapsed = timestamp - phaseStart;
+
+    if (resting) {
+      if (elapsed < restDuration) return true;
+      resting = false;
+      phaseStart = timestamp;
+      elapsed = 0.0;
+      phase = Phase.values()[phase.ordinal() + 1];
+    }
+
+    boolean quasistatic = phase == Phase.QUASISTATIC_FORWARD || phase == Phase.QUASISTATIC_REVERSE;
+    if (elapsed >= (quasistatic ? quasistaticDuration : dynamicDuration)) {
+      motor.setVoltage(0.0);
+      commandedVoltage = 0.0;
+      if (phase == Phase.DYNAMIC_REVERSE) {
+        phase = Phase.DONE;
+        return false;
+      }
+      resting = true;
+      phaseStart = timestamp;
+      return true;
+    }
+
+    // the velocity now is the result of the voltage commanded last update
+    record(timestamp, commandedVoltage, motor.getVelocity());
+
+    double sign = phase == Phase.QUASISTATIC_FORWARD || phase == Phase.DYNAMIC_FORWARD ? 1.0 : -1.0;
+    commandedVoltage = sign * (quasistatic ? rampRate * elapsed : stepVoltage);
+    motor.setVoltage(commandedVoltage);
+    return true;
+  }
+
+  private void record(double timestamp, double voltage, double velocity) {
+    if (count == times.length) {
+      dropped++;
+      return;
+    }
+    times[count] = timestamp;
+    voltages[count] = voltage;
+    velocities[count] = velocity;
+    phases[count] = phase.ordinal();
+    count++;
+  }
+
+  /**
+   * Runs the whole routine against a simulated motor as fast as the host allows, then fits
+   *
+   * @param sim simulated motor, which must be the motor being characterised
+   * @param dtSeconds simulated time between updates
+   * @return true if the fit succeeded
+   */
+  public boolean runSimulated(CrewmateSimMotor sim, double dtSeconds) {
+    start();
+    double time = sim.getSimTime();
+    while (update(time)) {
+      sim.update(dtSeconds);
+      time += dtSeconds;
+    }
+    return fit();
+  }
+
+  /**
+   * Fits kS, kV and kA to the recorded samples
+   *
+   * @return true if the samples determine all three gains
+   */
+  public boolean fit() {
+    solver.reset();
+    fitSamples = 0;
+    double mean = 0.0;
+    double sst = 0.0;
+
+    for (int i = 1; i < count - 1; i++) {
+      if (phases[i - 1] != phases[i] || phases[i + 1] != phases[i]) continue;
+      double velocity = velocities[i];
+      if (Math.abs(velocity) < velocityThreshold) continue;
+
+      double acceleration = (velocities[i + 1] - velocities[i - 1]) / (times[i + 1] - times[i - 1]);
+      double[] row = solver.scratchRow();
+      row[0] = Math.signum(velocity);
+      row[1] = velocity;
+      row[2] = acceleration;
+      solver.addScratchRow(voltages[i]);
+
+      fitSamples++;
+      double delta = voltages[i] - mean;
+      mean += delta / fitSamples;
+      sst += delta * (voltages[i] - mean);
+    }
+
+    if (solver.rank(RANK_TOLERANCE) < 3) {
+      rSquared = Double.NaN;
+      return false;
+    }
+    solver.solve(3, gains);
+    rSquared = sst == 0.0 ? 1.0 : 1.0 - solver.residualSumOfSquares(3) / sst;
+    return true;
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  public double getKs() {
+    return gains[0];
+  }
+
+  public double getKv() {
+    return gains[1];
+  }
+
+  public double getKa() {
+    return gains[2];
+  }
+
+  /**
+   * Coefficient of determination of the last fit
+   *
+   * @return R^2, NaN if the fit failed
+   */
+  public double getRSquared() {
+    return rSquared;
+  }
+
+  /**
+   * Number of recorded samples
+   *
+   * @return samples recorded since {@link #start()}
+   */
+  public int getSampleCount() {
+    return count;
+  }
+
+  /**
+   * Number of samples used by the last fit, after edges and slow samples are left out
+   *
+   * @return samples in the fit
+   */
+  public int getFitSampleCount() {
+    return fitSamples;
+  }
+
+  /**
+   * Number of samples lost because the buffers were full
+   *
+   * @return dropped samples
+   */
+  public long getDroppedCount() {
+    return dropped;
+  }
+}
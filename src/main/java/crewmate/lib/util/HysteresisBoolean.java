@@ -0,0 +1,75 @@
+package crewmate.lib.util;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A boolean from an analog signal with separate on and off thresholds
+ *
+ * <p>Becomes true once the value rises above the high threshold and false once it falls below the
+ * low threshold, holding its value in between, so a signal sitting near one threshold cannot
+ * chatter. Usable directly as a {@code Transition} force or blocker. Uses constant memory and does
+ * not allocate.
+ */
+public class HysteresisBoolean implements BooleanSupplier {
+  private final DoubleSupplier input;
+  private final double low;
+  private final double high;
+  private boolean state;
+
+  /**
+   * Creates a filter that starts false
+   *
+   * @param input analog signal, may be null if only {@link #update(double)} is used
+   * @param low value below which the output becomes false
+   * @param high value above which the output becomes true
+   * @throws IllegalArgumentException if low is greater than high
+   */
+  public HysteresisBoolean(DoubleSupplier input, double low, double high) {
+    if (low > high) {
+      throw new IllegalArgumentException("Low threshold cannot exceed high threshold.");
+    }
+    this.input = input;
+    this.low = low;
+    this.high = high;
+  }
+
+  /**
+   * Feeds a new input sample
+   *
+   * @param value analog input
+   * @return filtered value
+   */
+  public boolean update(double value) {
+    if (value > high) {
+      state = true;
+    } else if (value < low) {
+      state = false;
+    }
+    return state;
+  }
+
+  /** Samples the input */
+  @Override
+  public boolean getAsBoolean() {
+    return update(input.getAsDouble());
+  }
+
+  /**
+   * Gets the filtered value without sampling the input
+   *
+   * @return last filtered value
+   */
+  public boolean get() {
+    return state;
+  }
+
+  /**
+   * Forces the filtered value
+   *
+   * @param value new value
+   */
+  public void reset(boolean value) {
+    state = value;
+  }
+}
@@ -0,0 +1,256 @@
+package crewmate.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * Shapes every driver axis in one pass over a {@code double[]}
+ *
+ * <p>Stages are added in order through {@link #builder(int)} and compiled into flat opcode and
+ * parameter arrays, so {@link #apply(double[], double)} is a single loop over a switch with no
+ * allocation and no virtual call per stage. Stages that need history, such as slew limiting, keep
+ * it in a preallocated state array.
+ *
+ * <pre>
+ * InputShaper shaper =
+ *     InputShaper.builder(3)
+ *         .radialDeadband(0, 1, 0.1)
+ *         .curve(0, 2.0)
+ *         .curve(1, 2.0)
+ *         .deadband(2, 0.1)
+ *         .slewLimit(2, 3.0)
+ *         .build();
+ * ...
+ * axes[0] = controller.getLeftX();
+ * axes[1] = controller.getLeftY();
+ * axes[2] = controller.getRightX();
+ * shaper.apply(axes, 0.02);
+ * </pre>
+ */
+public final class InputShaper {
+  private static final int DEADBAND = 0;
+  private static final int RADIAL_DEADBAND = 1;
+  private static final int CURVE = 2;
+  private static final int SLEW = 3;
+  private static final int SCALE = 4;
+  private static final int CLAMP = 5;
+
+  private final int axisCount;
+  private final int[] ops;
+  private final int[] axisA;
+  private final int[] axisB;
+  private final double[] params;
+  private final double[] state;
+
+  private InputShaper(Builder builder) {
+    int count = builder.count;
+    this.axisCount = builder.axisCount;
+    this.ops = Arrays.copyOf(builder.ops, count);
+    this.axisA = Arrays.copyOf(builder.axisA, count);
+    this.axisB = Arrays.copyOf(builder.axisB, count);
+    this.params = Arrays.copyOf(builder.params, count);
+    this.state = new double[count];
+  }
+
+  /**
+   * Starts building a pipeline
+   *
+   * @param axisCount number of axes in the arrays passed to {@link #apply(double[], double)}
+   * @return builder
+   */
+  public static Builder builder(int axisCount) {
+    return new Builder(axisCount);
+  }
+
+  /**
+   * Runs every stage in order, in place
+   *
+   * @param axes axis values, at least as many as the pipeline was built for
+   * @param dtSeconds time since the last call, used by slew limiting
+   * @throws IllegalArgumentException if there are fewer axes than the pipeline was built for
+   */
+  public void apply(double[] axes, double dtSeconds) {
+    if (axes.length < axisCount) {
+      throw new IllegalArgumentException("Expected " + axisCount + " axes, got " + axes.length);
+    }
+    for (int n = 0; n < ops.length; n++) {
+      int a = axisA[n];
+      double x = axes[a];
+      double param = params[n];
+      switch (ops[n]) {
+        case DEADBAND -> {
+          double magnitude = Math.abs(x);
+          axes[a] = magnitude <= param ? 0.0 : Math.copySign((magnitude - param) / (1 - param), x);
+        }
+        case RADIAL_DEADBAND -> {
+          int b = axisB[n];
+          double y = axes[b];
+          double magnitude = Math.sqrt(x * x + y * y);
+          if (magnitude <= param) {
+            axes[a] = 0.0;
+            axes[b] = 0.0;
+          } else {
+            double scale = Math.min((magnitude - param) / (1 - param), 1.0) / magnitude;
+            axes[a] = x * scale;
+            axes[b] = y * scale;
+          }
+        }
+        case CURVE -> axes[a] = Math.copySign(Math.pow(Math.abs(x), param), x);
+        case SLEW -> {
+          double maxStep = param * dtSeconds;
+          double last = state[n];
+          last += Math.max(-maxStep, Math.min(maxStep, x - last));
+          state[n] = last;
+          axes[a] = last;
+        }
+        case SCALE -> axes[a] = x * param;
+        case CLAMP -> axes[a] = Math.max(-param, Math.min(param, x));
+        default -> {}
+      }
+    }
+  }
+
+  /** Clears slew limiter history so outputs restart from zero */
+  public void reset() {
+    Arrays.fill(state, 0.0);
+  }
+
+  public int getAxisCount() {
+    return axisCount;
+  }
+
+  public int getStageCount() {
+    return ops.length;
+  }
+
+  /** Collects stages for an {@link InputShaper} */
+  public static final class Builder {
+    private final int axisCount;
+    private int[] ops = new int[8];
+    private int[] axisA = new int[8];
+    private int[] axisB = new int[8];
+    private double[] params = new double[8];
+    private int count = 0;
+
+    private Builder(int axisCount) {
+      if (axisCount < 1) {
+        throw new IllegalArgumentException("Input shaper needs at least one axis");
+      }
+      this.axisCount = axisCount;
+    }
+
+    private Builder add(int op, int a, int b, double param) {
+      checkAxis(a);
+      checkAxis(b);
+      if (count == ops.length) {
+        ops = Arrays.copyOf(ops, count * 2);
+        axisA = Arrays.copyOf(axisA, count * 2);
+        axisB = Arrays.copyOf(axisB, count * 2);
+        params = Arrays.copyOf(params, count * 2);
+      }
+      ops[count] = op;
+      axisA[count] = a;
+      axisB[count] = b;
+      params[count] = param;
+      count++;
+      return this;
+    }
+
+    private void checkAxis(int axis) {
+      if (axis < 0 || axis >= axisCount) {
+        throw new IllegalArgumentException("Axis " + axis + " out of range");
+      }
+    }
+
+    private static void checkWindow(double window) {
+      if (window < 0 || window >= 1) {
+        throw new IllegalArgumentException("Deadband window must be in [0, 1)");
+      }
+    }
+
+    /**
+     * Zeroes an axis inside a window and rescales the rest so output still reaches 1
+     *
+     * @param axis axis index
+     * @param window deadband half width, in [0, 1)
+     * @return this builder
+     */
+    public Builder deadband(int axis, double window) {
+      checkWindow(window);
+      return add(DEADBAND, axis, axis, window);
+    }
+
+    /**
+     * Deadbands a pair of axes by their combined magnitude and rescales it, so a stick keeps its
+     * direction near the center instead of snapping to the nearest axis
+     *
+     * @param axisX first axis index
+     * @param axisY second axis index
+     * @param window deadband radius, in [0, 1)
+     * @return this builder
+     */
+    public Builder radialDeadband(int axisX, int axisY, double window) {
+      checkWindow(window);
+      if (axisX == axisY) {
+        throw new IllegalArgumentException("Radial deadband needs two different axes");
+      }
+      return add(RADIAL_DEADBAND, axisX, axisY, window);
+    }
+
+    /**
+     * Raises an axis magnitude to a power, keeping its sign, for finer control near the center
+     *
+     * @param axis axis index
+     * @param exponent power, for example 2 or 3
+     * @return this builder
+     */
+    public Builder curve(int axis, double exponent) {
+      if (!(exponent > 0)) {
+        throw new IllegalArgumentException("Curve exponent must be positive");
+      }
+      return add(CURVE, axis, axis, exponent);
+    }
+
+    /**
+     * Limits how fast an axis can change
+     *
+     * @param axis axis index
+     * @param ratePerSecond largest change per second
+     * @return this builder
+     */
+    public Builder slewLimit(int axis, double ratePerSecond) {
+      if (!(ratePerSecond > 0)) {
+        throw new IllegalArgumentException("Slew rate must be positive");
+      }
+      return add(SLEW, axis, axis, ratePerSecond);
+    }
+
+    /**
+     * Multiplies an axis by a constant
+     *
+     * @param axis axis index
+     * @param factor scale factor
+     * @return this builder
+     */
+    public Builder scale(int axis, double factor) {
+      return add(SCALE, axis, axis, factor);
+    }
+
+    /**
+     * Clamps an axis to a symmetric range
+     *
+     * @param axis axis index
+     * @param limit largest magnitude
+     * @return this builder
+     */
+    public Builder clamp(int axis, double limit) {
+      if (limit < 0) {
+        throw new IllegalArgumentException("Clamp limit cannot be negative");
+      }
+      return add(CLAMP, axis, axis, limit);
+    }
+
+    public InputShaper build() {
+      return new InputShaper(this);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package crewmate.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * Edge detection for many boolean signals at once, packed 64 to a {@code long}
+ *
+ * <p>Signal {@code n} is bit {@code n % 64} of word {@code n / 64}. Each update of a word finds
+ * rising, falling and changed edges for all 64 of its signals with a few bitwise operations, where
+ * a {@link LatchedBoolean} per signal would need 64 objects and calls.
+ *
+ * <p>With {@link #setDebounce(int)}, a signal only changes state once its input has held the new
+ * value for that many consecutive updates, so a bouncing switch produces one edge.
+ */
+public class LatchedBooleanBank {
+  private final int signals;
+  private final long[] masks;
+  private final long[] last;
+  private final long[] rising;
+  private final long[] falling;
+
+  private int debounce = 1;
+  private long[] history = new long[0];
+  private int[] heads = new int[0];
+
+  /**
+   * Creates a bank with every signal false
+   *
+   * @param signals number of signals tracked
+   * @throws IllegalArgumentException if there are no signals
+   */
+  public LatchedBooleanBank(int signals) {
+    if (signals < 1) {
+      throw new IllegalArgumentException("Bank needs at least one signal");
+    }
+    this.signals = signals;
+    int words = (signals + 63) / 64;
+    this.masks = new long[words];
+    this.last = new long[words];
+    this.rising = new long[words];
+    this.falling = new long[words];
+    Arrays.fill(masks, -1L);
+    if (signals % 64 != 0) masks[words - 1] = (1L << (signals % 64)) - 1;
+  }
+
+  /**
+   * Requires inputs to hold a new value for a number of consecutive updates before it counts
+   *
+   * @param updates updates an input must be stable for, 1 to disable debouncing
+   * @throws IllegalArgumentException if updates is less than 1
+   */
+  public void setDebounce(int updates) {
+    if (updates < 1) {
+      throw new IllegalArgumentException("Debounce must be at least one update");
+    }
+    this.debounce = updates;
+    this.history = updates > 1 ? new long[masks.length * updates] : new long[0];
+    this.heads = new int[masks.length];
+    for (int w = 0; w < masks.length; w++) {
+      Arrays.fill(history, w * updates, (w + 1) * updates, last[w]);
+    }
+  }
+
+  /**
+   * Updates the first 64 signals
+   *
+   * @param input packed signal values
+   * @return rising edges
+   */
+  public long update(long input) {
+    return update(0, input);
+  }
+
+  /**
+   * Updates 64 signals from one packed word
+   *
+   * @param word index of the word, signals {@code 64 * word} to {@code 64 * word + 63}
+   * @param input packed signal values
+   * @return rising edges
+   */
+  public long update(int word, long input) {
+    long value = input & masks[word];
+    if (debounce > 1) {
+      int base = word * debounce;
+      history[base + heads[word]] = value;
+      heads[word] = (heads[word] + 1) % debounce;
+      long allHigh = -1L;
+      long anyHigh = 0L;
+      for (int k = base; k < base + debounce; k++) {
+        allHigh &= history[k];
+        anyHigh |= history[k];
+      }
+      // Set once high for the whole window, cleared once low for the whole window
+      value = (last[word] | allHigh) & anyHigh;
+    }
+    long previous = last[word];
+    rising[word] = value & ~previous;
+    falling[word] = ~value & previous;
+    last[word] = value;
+    return rising[word];
+  }
+
+  /**
+   * Updates every signal
+   *
+   * @param inputs packed signal values, one word per 64 signals
+   */
+  public void update(long[] inputs) {
+    for (int w = 0; w < masks.length; w++) {
+      update(w, inputs[w]);
+    }
+  }
+
+  public long getRising(int word) {
+    return rising[word];
+  }
+
+  public long getFalling(int word) {
+    return falling[word];
+  }
+
+  /**
+   * Gets the signals that changed in either direction in the last update of a word
+   *
+   * @param word index of the word
+   * @return changed signals
+   */
+  public long getChanged(int word) {
+    return rising[word] | falling[word];
+  }
+
+  /**
+   * Gets the current, debounced, values of a word
+   *
+   * @param word index of the word
+   * @return packed signal values
+   */
+  public long getState(int word) {
+    return last[word];
+  }
+
+  public boolean isRising(int signal) {
+    return (rising[signal >>> 6] & (1L << signal)) != 0;
+  }
+
+  public boolean isFalling(int signal) {
+    return (falling[signal >>> 6] & (1L << signal)) != 0;
+  }
+
+  public boolean get(int signal) {
+    return (last[signal >>> 6] & (1L << signal)) != 0;
+  }
+
+  /** Resets every signal to false, so the next true input is a rising edge */
+  public void unlatch() {
+    Arrays.fill(last, 0L);
+    Arrays.fill(rising, 0L);
+    Arrays.fill(falling, 0L);
+    Arrays.fill(history, 0L);
+  }
+
+  public int getSignalCount() {
+    return signals;
+  }
+
+  public int getWordCount() {
+    return masks.length;
+  }
+}
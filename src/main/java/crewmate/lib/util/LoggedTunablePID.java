@@ -1,31 +1,31 @@
 package crewmate.lib.util;
 
-import crewmate.lib.Library.Constants;
 import crewmate.lib.motor.CrewmateMotor;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
 
-public class LoggedTunablePID {
+/**
+ * Tunes a motor's PID gains through a {@link TunableGroup}, so a change to any gain is written with
+ * one setPID call. The group registers itself with the {@link TunableRegistry}, so with {@link
+ * crewmate.lib.CrewmateCentral#addTunables()} nothing else is needed
+ */
+public class LoggedTunablePID implements TunableRegistry.Tunable {
   private static final String tableKey = "TunablePID";
   private final CrewmateMotor motor;
   private final String key;
+  private final TunableGroup.Source source;
 
-  private boolean hasDefault = false;
-  private double defaultP;
-  private double defaultI;
-  private double defaultD;
-
-  private LoggedDashboardNumber kP;
-  private LoggedDashboardNumber kI;
-  private LoggedDashboardNumber kD;
-
-  private double lastP;
-  private double lastI;
-  private double lastD;
+  private TunableGroup group;
+  private TunableGroup.NumberValue kP;
+  private TunableGroup.NumberValue kI;
+  private TunableGroup.NumberValue kD;
 
   public LoggedTunablePID(CrewmateMotor motor, String dashboardKey) {
+    this(motor, dashboardKey, TunableGroup.DASHBOARD);
+  }
+
+  LoggedTunablePID(CrewmateMotor motor, String dashboardKey, TunableGroup.Source source) {
     this.motor = motor;
     this.key = tableKey + "/" + dashboardKey;
+    this.source = source;
   }
 
   public LoggedTunablePID(
@@ -35,67 +35,43 @@ public class LoggedTunablePID {
   }
 
   public void initDefault(double defaultP, double defaultI, double defaultD) {
-    if (!hasDefault) {
-      hasDefault = true;
-      this.defaultP = defaultP;
-      this.defaultI = defaultI;
-      this.defaultD = defaultD;
-
-      motor.setP(defaultP);
-      motor.setI(defaultI);
-      motor.setD(defaultD);
-
-      if (Constants.tuningMode) {
-        kP = new LoggedDashboardNumber(key + "/kP", defaultP);
-        kI = new LoggedDashboardNumber(key + "/kI", defaultI);
-        kD = new LoggedDashboardNumber(key + "/kD", defaultD);
-
-        lastP = kP.get();
-        lastI = kI.get();
-        lastD = kD.get();
-      }
+    if (group == null) {
+      // Keeps the TunablePID/<key> dashboard path rather than the Tunables table
+      group = new TunableGroup(key, this::updatePID, source);
+      kP = group.addNumber("kP", defaultP);
+      kI = group.addNumber("kI", defaultI);
+      kD = group.addNumber("kD", defaultD);
+
+      motor.setPID(defaultP, defaultI, defaultD);
     }
   }
 
   public boolean UpdateIfChanged() {
-    if (!hasDefault) return false;
-
-    if (Constants.tuningMode) {
-      double currentP = kP.get();
-      double currentI = kI.get();
-      double currentD = kD.get();
-
-      if (currentP != lastP || currentI != lastI || currentD != lastD) {
-        updatePID();
-        lastP = currentP;
-        lastI = currentI;
-        lastD = currentD;
-        return true;
-      }
-    }
-    return false;
+    return group != null && group.poll();
   }
 
   public void updatePID() {
-    if (!hasDefault) return;
+    if (group == null) return;
+    motor.setPID(kP.get(), kI.get(), kD.get());
+  }
 
-    if (Constants.tuningMode) {
-      motor.setP(kP.get());
-      motor.setI(kI.get());
-      motor.setD(kD.get());
-    } else {
-      motor.setP(defaultP);
-      motor.setI(defaultI);
-      motor.setD(defaultD);
-    }
+  @Override
+  public boolean poll() {
+    return UpdateIfChanged();
   }
 
+  /** Polls the {@link TunableRegistry}, which holds the gains, once per command scheduler run */
   public void bindToScheduler() {
-    CommandScheduler.getInstance()
-        .onCommandExecute(
-            (command) -> {
-              this.UpdateIfChanged();
-            });
+    TunableRegistry.getInstance().bindToScheduler();
+  }
+
+  /**
+   * Gets the group holding the gains, null until defaults are set
+   *
+   * @return the group
+   */
+  public TunableGroup getGroup() {
+    return group;
   }
 
   public CrewmateMotor getMotor() {
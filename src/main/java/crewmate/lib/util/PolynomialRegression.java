@@ -23,6 +23,8 @@ import Jama.*;
  *
  * <p>This implementation performs a QR-decomposition of the underlying Vandermonde matrix, so it is
  * neither the fastest nor the most numerically stable way to perform the polynomial regression.
+ * For predictor values far from zero or data too large to hold in memory, use {@link
+ * StreamingPolynomialRegression}.
  *
  * @author Robert Sedgewick
  * @author Kevin Wayne
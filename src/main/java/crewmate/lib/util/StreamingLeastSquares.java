@@ -0,0 +1,163 @@
+package crewmate.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * A streaming linear least squares solver.
+ *
+ * <p>Rows of the design matrix are folded one at a time into an upper triangular factor using
+ * Givens rotations, so the full matrix is never stored. Memory is fixed at construction (k * k for
+ * k unknowns) and adding rows or solving never allocates, which makes it usable on large logs and
+ * inside robot loops.
+ *
+ * <p>Because the columns are rotated in order, the leading j by j block of the factor is the factor
+ * of the first j columns alone. Solving a truncated model (for example a lower degree polynomial)
+ * therefore costs nothing extra.
+ */
+public class StreamingLeastSquares {
+  private final int columns;
+  private final double[][] r; // upper triangular factor
+  private final double[] qty; // rotated response vector
+  private final double[] row; // scratch row, reused by addRow
+  private double residualSumOfSquares;
+  private long count;
+
+  /**
+   * Creates a new solver
+   *
+   * @param columns number of unknowns in the model
+   * @throws IllegalArgumentException if columns is not positive
+   */
+  public StreamingLeastSquares(int columns) {
+    if (columns <= 0) {
+      throw new IllegalArgumentException("Number of columns must be positive");
+    }
+    this.columns = columns;
+    this.r = new double[columns][columns];
+    this.qty = new double[columns];
+    this.row = new double[columns];
+  }
+
+  /**
+   * Adds one observation to the model
+   *
+   * @param values the row of the design matrix, at least {@link #columns()} long. Not modified.
+   * @param y the observed response
+   */
+  public void addRow(double[] values, double y) {
+    System.arraycopy(values, 0, row, 0, columns);
+    addScratchRow(y);
+  }
+
+  /**
+   * Returns the internal scratch row. Fill it and call {@link #addScratchRow(double)} to add an
+   * observation without copying.
+   *
+   * @return the scratch row
+   */
+  public double[] scratchRow() {
+    return row;
+  }
+
+  /**
+   * Adds the contents of the scratch row as one observation. The scratch row is consumed.
+   *
+   * @param y the observed response
+   */
+  public void addScratchRow(double y) {
+    for (int j = 0; j < columns; j++) {
+      double a = row[j];
+      if (a == 0.0) continue;
+
+      double diag = r[j][j];
+      double h = Math.hypot(diag, a);
+      double c = diag / h;
+      double s = a / h;
+      r[j][j] = h;
+
+      for (int k = j + 1; k < columns; k++) {
+        double t = r[j][k];
+        r[j][k] = c * t + s * row[k];
+        row[k] = c * row[k] - s * t;
+      }
+
+      double t = qty[j];
+      qty[j] = c * t + s * y;
+      y = c * y - s * t;
+    }
+    residualSumOfSquares += y * y;
+    count++;
+  }
+
+  /**
+   * Finds the largest leading block of columns that is numerically full rank
+   *
+   * @param tolerance relative tolerance on the diagonal of the factor
+   * @return number of leading columns that can be solved for
+   */
+  public int rank(double tolerance) {
+    double max = 0.0;
+    for (int j = 0; j < columns; j++) max = Math.max(max, Math.abs(r[j][j]));
+    if (max == 0.0) return 0;
+
+    for (int j = 0; j < columns; j++) {
+      if (Math.abs(r[j][j]) <= tolerance * max) return j;
+    }
+    return columns;
+  }
+
+  /**
+   * Solves for the coefficients of the first {@code used} columns, treating the rest as zero
+   *
+   * @param used number of leading columns to solve for
+   * @param out array to write the coefficients into, at least {@link #columns()} long
+   */
+  public void solve(int used, double[] out) {
+    for (int j = columns - 1; j >= used; j--) out[j] = 0.0;
+    for (int j = used - 1; j >= 0; j--) {
+      double sum = qty[j];
+      for (int k = j + 1; k < used; k++) sum -= r[j][k] * out[k];
+      out[j] = sum / r[j][j];
+    }
+  }
+
+  /**
+   * Returns the residual sum of squares of the fit using only the first {@code used} columns
+   *
+   * @param used number of leading columns in the model
+   * @return sum of squared residuals
+   */
+  public double residualSumOfSquares(int used) {
+    double sse = residualSumOfSquares;
+    for (int j = used; j < columns; j++) sse += qty[j] * qty[j];
+    return sse;
+  }
+
+  /** Removes all observations */
+  public void reset() {
+    for (int j = 0; j < columns; j++) {
+      Arrays.fill(r[j], 0.0);
+    }
+    Arrays.fill(qty, 0.0);
+    residualSumOfSquares = 0.0;
+    count = 0;
+  }
+
+  /**
+   * Returns the number of unknowns in the model
+   *
+   * @return number of columns
+   */
+  public int columns() {
+    return columns;
+  }
+
+  /**
+   * Returns the number of observations added
+   *
+   * @return number of rows
+   */
+  public long count() {
+    return count;
+  }
+}
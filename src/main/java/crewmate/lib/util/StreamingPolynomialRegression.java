@@ -0,0 +1,375 @@
+package crewmate.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * A numerically stable, bounded memory alternative to {@link PolynomialRegression}.
+ *
+ * <p>The predictor is centred and scaled onto [-1, 1] using a range given up front, and the fit is
+ * performed in either the monomial or the Chebyshev basis of that scaled variable. Data is streamed
+ * in with {@link #add(double, double)} or in chunks with {@link #addAll(double[], double[], int,
+ * int)} and folded into a {@link StreamingLeastSquares} factor, so memory use depends only on the
+ * degree and million point logs can be fit without holding them in memory.
+ *
+ * <p>Raw predictor values such as encoder ticks in the thousands make the Vandermonde matrix of
+ * {@link PolynomialRegression} badly conditioned, which shows up as a silently reduced degree. Here
+ * the degree is only reduced if the data genuinely cannot support it (for example fewer distinct
+ * points than coefficients), and {@link #degree()} reports the degree actually fit.
+ *
+ * <p>{@link #predict(double)} evaluates in the scaled basis and stays accurate. {@link #beta(int)}
+ * expands the fit back into raw monomial coefficients for display, which can lose precision for
+ * high degrees over ranges far from zero.
+ */
+public class StreamingPolynomialRegression {
+  /** Basis the polynomial is fit in, both in terms of the scaled predictor */
+  public enum Basis {
+    /** 1, t, t^2, ... */
+    MONOMIAL,
+    /** Chebyshev polynomials of the first kind, T0(t), T1(t), T2(t), ... */
+    CHEBYSHEV
+  }
+
+  private static final double RANK_TOLERANCE = 1E-10;
+
+  private final String variableName; // name of the predictor variable
+  private final int requestedDegree;
+  private final Basis basis;
+  private final double center;
+  private final double halfRange;
+  private final StreamingLeastSquares solver;
+
+  // response statistics (Welford)
+  private long n;
+  private double mean;
+  private double sst;
+
+  // lazily computed fit
+  private boolean dirty = true;
+  private int degree;
+  private final double[] coefficients; // in the chosen basis
+  private final double[] beta; // raw monomial coefficients
+  private final double[] scratchA;
+  private final double[] scratchB;
+
+  /**
+   * Creates an empty regression over a known predictor range. Uses n as the name of the predictor
+   * variable.
+   *
+   * @param degree the degree of the polynomial to fit
+   * @param xMin smallest expected predictor value
+   * @param xMax largest expected predictor value
+   * @param basis basis to fit in
+   * @throws IllegalArgumentException if the degree is not positive or the range is empty
+   */
+  public StreamingPolynomialRegression(int degree, double xMin, double xMax, Basis basis) {
+    this(degree, xMin, xMax, basis, "n");
+  }
+
+  /**
+   * Creates an empty regression over a known predictor range.
+   *
+   * @param degree the degree of the polynomial to fit
+   * @param xMin smallest expected predictor value
+   * @param xMax largest expected predictor value
+   * @param basis basis to fit in
+   * @param variableName the name of the predictor variable
+   * @throws IllegalArgumentException if the degree is not positive or the range is empty
+   */
+  public StreamingPolynomialRegression(
+      int degree, double xMin, double xMax, Basis basis, String variableName) {
+    if (degree <= 0) {
+      throw new IllegalArgumentException("Polynomial degree must be positive");
+    }
+    if (!(xMax > xMin)) {
+      throw new IllegalArgumentException("Predictor range must be non-empty");
+    }
+    this.requestedDegree = degree;
+    this.degree = degree;
+    this.basis = basis;
+    this.variableName = variableName;
+    this.center = (xMax + xMin) / 2.0;
+    this.halfRange = (xMax - xMin) / 2.0;
+
+    this.solver = new StreamingLeastSquares(degree + 1);
+    this.coefficients = new double[degree + 1];
+    this.beta = new double[degree + 1];
+    this.scratchA = new double[degree + 1];
+    this.scratchB = new double[degree + 1];
+  }
+
+  /**
+   * Fits a polynomial to in-memory data, using the data's own range for scaling
+   *
+   * @param x the values of the predictor variable
+   * @param y the corresponding values of the response variable
+   * @param degree the degree of the polynomial to fit
+   * @param basis basis to fit in
+   * @return the fitted regression
+   * @throws IllegalArgumentException if the arrays are empty or of different lengths
+   */
+  public static StreamingPolynomialRegression fit(
+      double[] x, double[] y, int degree, Basis basis) {
+    if (x.length == 0 || y.length == 0) {
+      throw new IllegalArgumentException("Input arrays cannot be empty");
+    }
+    double min = x[0];
+    double max = x[0];
+    for (double value : x) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (min == max) {
+      // all points share one x, any non-empty range works and only the constant term survives
+      max = min + 1.0;
+    }
+    StreamingPolynomialRegression regression =
+        new StreamingPolynomialRegression(degree, min, max, basis);
+    regression.addAll(x, y);
+    return regression;
+  }
+
+  /**
+   * Adds a single data point
+   *
+   * @param x the value of the predictor variable
+   * @param y the corresponding value of the response variable
+   */
+  public void add(double x, double y) {
+    double t = (x - center) / halfRange;
+    evaluateBasis(t, solver.scratchRow());
+    solver.addScratchRow(y);
+
+    n++;
+    double delta = y - mean;
+    mean += delta / n;
+    sst += delta * (y - mean);
+    dirty = true;
+  }
+
+  /**
+   * Adds a chunk of data points
+   *
+   * @param x the values of the predictor variable
+   * @param y the corresponding values of the response variable
+   * @throws IllegalArgumentException if the lengths of the two arrays are not equal
+   */
+  public void addAll(double[] x, double[] y) {
+    if (x.length != y.length) {
+      throw new IllegalArgumentException("Input arrays must be the same length");
+    }
+    addAll(x, y, 0, x.length);
+  }
+
+  /**
+   * Adds a chunk of data points from a region of two buffers, allowing the buffers to be reused
+   * between chunks
+   *
+   * @param x the values of the predictor variable
+   * @param y the corresponding values of the response variable
+   * @param offset index of the first point to add
+   * @param length number of points to add
+   * @throws IllegalArgumentException if the region is not within both arrays
+   */
+  public void addAll(double[] x, double[] y, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > x.length - length || offset > y.length - length) {
+      throw new IllegalArgumentException("Region is outside the input arrays");
+    }
+    for (int i = offset; i < offset + length; i++) {
+      add(x[i], y[i]);
+    }
+  }
+
+  private void evaluateBasis(double t, double[] out) {
+    out[0] = 1.0;
+    out[1] = t;
+    for (int j = 2; j <= requestedDegree; j++) {
+      out[j] = basis == Basis.CHEBYSHEV ? 2.0 * t * out[j - 1] - out[j - 2] : t * out[j - 1];
+    }
+  }
+
+  /** Solves the fit if any data has been added since the last solve */
+  private void update() {
+    if (!dirty) return;
+    if (n == 0) {
+      throw new IllegalStateException("No data has been added");
+    }
+
+    int rank = solver.rank(RANK_TOLERANCE);
+    degree = Math.max(rank - 1, 0);
+    solver.solve(rank, coefficients);
+    computeRawCoefficients();
+    dirty = false;
+  }
+
+  /** Expands the basis coefficients into monomial coefficients of the unscaled predictor */
+  private void computeRawCoefficients() {
+    // monomial coefficients in t, stored in scratchA
+    double[] m = scratchA;
+    Arrays.fill(m, 0.0);
+    if (basis == Basis.MONOMIAL) {
+      System.arraycopy(coefficients, 0, m, 0, degree + 1);
+    } else {
+      // walk T_j(t) using prev/curr monomial coefficient arrays
+      double[] prev = beta; // borrowed as scratch, overwritten below
+      double[] curr = scratchB;
+      Arrays.fill(prev, 0.0);
+      Arrays.fill(curr, 0.0);
+      prev[0] = 1.0; // T0
+      m[0] += coefficients[0];
+      if (degree >= 1) {
+        curr[1] = 1.0; // T1
+        m[1] += coefficients[1];
+      }
+      for (int j = 2; j <= degree; j++) {
+        // T_j = 2t T_{j-1} - T_{j-2}, computed into prev
+        for (int k = j; k >= 0; k--) {
+          double shifted = k > 0 ? 2.0 * curr[k - 1] : 0.0;
+          prev[k] = shifted - prev[k];
+        }
+        for (int k = 0; k <= j; k++) m[k] += coefficients[j] * prev[k];
+        double[] swap = prev;
+        prev = curr;
+        curr = swap;
+      }
+    }
+
+    // substitute t = a x + b with horner's method on polynomials
+    double a = 1.0 / halfRange;
+    double b = -center / halfRange;
+    Arrays.fill(beta, 0.0);
+    for (int j = degree; j >= 0; j--) {
+      // beta = beta * (a x + b) + m[j]
+      for (int k = degree; k >= 0; k--) {
+        beta[k] = beta[k] * b + (k > 0 ? beta[k - 1] * a : 0.0);
+      }
+      beta[0] += m[j];
+    }
+  }
+
+  /**
+   * Returns the {@code j}th raw monomial regression coefficient, in terms of the unscaled predictor
+   *
+   * @param j the index
+   * @return the {@code j}th regression coefficient
+   */
+  public double beta(int j) {
+    update();
+    return beta[j];
+  }
+
+  /**
+   * Returns the {@code j}th regression coefficient in the fitting basis of the scaled predictor
+   *
+   * @param j the index
+   * @return the {@code j}th basis coefficient
+   */
+  public double coefficient(int j) {
+    update();
+    return coefficients[j];
+  }
+
+  /**
+   * Returns the degree of the fitted polynomial. This is lower than the requested degree only when
+   * the data cannot determine every coefficient.
+   *
+   * @return the degree of the fitted polynomial
+   */
+  public int degree() {
+    update();
+    return degree;
+  }
+
+  /**
+   * Returns the degree requested at construction
+   *
+   * @return the requested degree
+   */
+  public int requestedDegree() {
+    return requestedDegree;
+  }
+
+  /**
+   * Returns the number of data points added
+   *
+   * @return number of data points
+   */
+  public long count() {
+    return n;
+  }
+
+  /**
+   * Returns the coefficient of determination <em>R</em><sup>2</sup>.
+   *
+   * @return the coefficient of determination <em>R</em><sup>2</sup>, which is a real number between
+   *     0 and 1
+   */
+  public double R2() {
+    update();
+    if (sst == 0.0) return 1.0; // constant function
+    return 1.0 - solver.residualSumOfSquares(degree + 1) / sst;
+  }
+
+  /**
+   * Returns the expected response {@code y} given the value of the predictor variable {@code x}.
+   *
+   * @param x the value of the predictor variable
+   * @return the expected response {@code y} given the value of the predictor variable {@code x}
+   */
+  public double predict(double x) {
+    update();
+    double t = (x - center) / halfRange;
+
+    if (basis == Basis.MONOMIAL) {
+      // horner's method
+      double y = 0.0;
+      for (int j = degree; j >= 0; j--) y = coefficients[j] + (t * y);
+      return y;
+    }
+
+    // clenshaw's recurrence
+    double b1 = 0.0;
+    double b2 = 0.0;
+    for (int j = degree; j >= 1; j--) {
+      double b0 = coefficients[j] + 2.0 * t * b1 - b2;
+      b2 = b1;
+      b1 = b0;
+    }
+    return coefficients[0] + t * b1 - b2;
+  }
+
+  /** Removes all data points, keeping the range and basis */
+  public void reset() {
+    solver.reset();
+    n = 0;
+    mean = 0.0;
+    sst = 0.0;
+    dirty = true;
+  }
+
+  /**
+   * Returns a string representation of the polynomial regression model.
+   *
+   * @return a string representation of the polynomial regression model, including the best-fit
+   *     polynomial in raw coefficients and the coefficient of determination <em>R</em><sup>2</sup>
+   */
+  public String toString() {
+    update();
+    StringBuilder s = new StringBuilder();
+    int j = degree;
+
+    // ignoring leading zero coefficients
+    while (j >= 0 && beta[j] == 0.0) j--;
+
+    // create remaining terms
+    while (j >= 0) {
+      if (j == 0) s.append(String.format("%.2f ", beta[j]));
+      else if (j == 1) s.append(String.format("%.2f %s + ", beta[j], variableName));
+      else s.append(String.format("%.2f %s^%d + ", beta[j], variableName, j));
+      j--;
+    }
+    s = s.append("  (R^2 = " + String.format("%.3f", R2()) + ")");
+
+    // replace "+ -2n" with "- 2n"
+    return s.toString().replace("+ -", "- ");
+  }
+}
@@ -0,0 +1,166 @@
+package crewmate.lib.util;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hosts many change-only toggles in one subsystem
+ *
+ * <p>Each toggle runs its true or false action once for its initial state and then only when its
+ * state changes, instead of every loop. A toggle changes through {@link Toggle#toggle()} and {@link
+ * Toggle#set(boolean)}, or follows a condition: either taking its value or flipping on each rising
+ * edge. All toggles are updated from this subsystem's {@code periodic}, so a robot pays for one
+ * scheduled subsystem no matter how many toggles it has. The toggles themselves are kept by a
+ * {@link ToggleList}.
+ *
+ * <pre>
+ * ToggleGroup toggles = new ToggleGroup();
+ * toggles.addFlipOnRising(driver.a(), intake::deploy, intake::stow, false);
+ * toggles.addFollowing(() -> elevator.getPosition() > 1.0, leds::warn, leds::clear);
+ * </pre>
+ */
+public class ToggleGroup extends SubsystemBase {
+  enum Source {
+    MANUAL,
+    FOLLOW,
+    FLIP_ON_RISING
+  }
+
+  /** A toggle hosted by a {@link ToggleGroup} */
+  public static final class Toggle {
+    private final Runnable onTrue;
+    private final Runnable onFalse;
+    private final BooleanSupplier condition;
+    private final Source source;
+
+    private boolean state;
+    private boolean lastCondition = false;
+    private boolean applied = false;
+    private boolean appliedState;
+
+    Toggle(
+        Runnable onTrue,
+        Runnable onFalse,
+        boolean state,
+        BooleanSupplier condition,
+        Source source) {
+      this.onTrue = onTrue;
+      this.onFalse = onFalse;
+      this.state = state;
+      this.condition = condition;
+      this.source = source;
+    }
+
+    boolean update() {
+      if (source != Source.MANUAL) {
+        boolean value = condition.getAsBoolean();
+        if (source == Source.FOLLOW) {
+          state = value;
+        } else if (value && !lastCondition) {
+          state = !state;
+        }
+        lastCondition = value;
+      }
+      if (applied && appliedState == state) return false;
+
+      applied = true;
+      appliedState = state;
+      if (state) {
+        onTrue.run();
+      } else {
+        onFalse.run();
+      }
+      return true;
+    }
+
+    /** Flips the state, the matching action runs on the next update */
+    public void toggle() {
+      state = !state;
+    }
+
+    /**
+     * Sets the state, the matching action runs on the next update if it changed
+     *
+     * @param state new state
+     */
+    public void set(boolean state) {
+      this.state = state;
+    }
+
+    public boolean get() {
+      return state;
+    }
+  }
+
+  private final ToggleList toggles = new ToggleList();
+
+  /** Creates an empty group, registered with the command scheduler */
+  public ToggleGroup() {
+    super("ToggleGroup");
+  }
+
+  /**
+   * Adds a toggle changed only through its handle
+   *
+   * @param onTrue action for the true state
+   * @param onFalse action for the false state
+   * @param initState initial state
+   * @return handle to change the toggle
+   */
+  public Toggle add(Runnable onTrue, Runnable onFalse, boolean initState) {
+    return toggles.add(onTrue, onFalse, initState);
+  }
+
+  /**
+   * Adds a toggle that takes the value of a condition
+   *
+   * @param condition condition sampled every update
+   * @param onTrue action run when the condition becomes true
+   * @param onFalse action run when the condition becomes false
+   * @return handle to the toggle
+   */
+  public Toggle addFollowing(BooleanSupplier condition, Runnable onTrue, Runnable onFalse) {
+    return toggles.addFollowing(condition, onTrue, onFalse);
+  }
+
+  /**
+   * Adds a toggle that flips each time a condition rises, such as a button press
+   *
+   * @param condition condition sampled every update
+   * @param onTrue action for the true state
+   * @param onFalse action for the false state
+   * @param initState initial state
+   * @return handle to the toggle, which can also be changed directly
+   */
+  public Toggle addFlipOnRising(
+      BooleanSupplier condition, Runnable onTrue, Runnable onFalse, boolean initState) {
+    return toggles.addFlipOnRising(condition, onTrue, onFalse, initState);
+  }
+
+  /**
+   * Updates every toggle and runs the actions of those that changed
+   *
+   * @return number of actions run
+   */
+  public int update() {
+    return toggles.update();
+  }
+
+  @Override
+  public void periodic() {
+    update();
+  }
+
+  public int size() {
+    return toggles.size();
+  }
+
+  /**
+   * Number of actions run in the last update
+   *
+   * @return actions run
+   */
+  public int getLastChangeCount() {
+    return toggles.getLastChangeCount();
+  }
+}
@@ -0,0 +1,56 @@
+package crewmate.lib.util;
+
+import crewmate.lib.util.ToggleGroup.Source;
+import crewmate.lib.util.ToggleGroup.Toggle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The toggles of a {@link ToggleGroup}, kept apart from the subsystem so they can be updated
+ * without the command scheduler
+ */
+final class ToggleList {
+  private final List<Toggle> toggles = new ArrayList<>();
+  private int lastChangeCount = 0;
+
+  Toggle add(Runnable onTrue, Runnable onFalse, boolean initState) {
+    return add(new Toggle(onTrue, onFalse, initState, null, Source.MANUAL));
+  }
+
+  Toggle addFollowing(BooleanSupplier condition, Runnable onTrue, Runnable onFalse) {
+    return add(new Toggle(onTrue, onFalse, false, condition, Source.FOLLOW));
+  }
+
+  Toggle addFlipOnRising(
+      BooleanSupplier condition, Runnable onTrue, Runnable onFalse, boolean initState) {
+    return add(new Toggle(onTrue, onFalse, initState, condition, Source.FLIP_ON_RISING));
+  }
+
+  private Toggle add(Toggle toggle) {
+    toggles.add(toggle);
+    return toggle;
+  }
+
+  /**
+   * Updates every toggle and runs the actions of those that changed
+   *
+   * @return number of actions run
+   */
+  int update() {
+    int changes = 0;
+    for (int i = 0; i < toggles.size(); i++) {
+      if (toggles.get(i).update()) changes++;
+    }
+    lastChangeCount = changes;
+    return changes;
+  }
+
+  int size() {
+    return toggles.size();
+  }
+
+  int getLastChangeCount() {
+    return lastChangeCount;
+  }
+}
@@ -0,0 +1,262 @@
+package crewmate.lib.util;
+
+import crewmate.lib.Library.Constants;
+import crewmate.lib.motor.CrewmateMotor;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.LoggedDashboardBoolean;
+import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
+
+/**
+ * A set of typed tunable values applied to one consumer together
+ *
+ * <p>Values are added with {@link #addNumber(String, double)} and {@link #addBoolean(String,
+ * boolean)} and read through the returned handles. When any value in the group changes on the
+ * dashboard, the apply callback runs once with every value up to date, so a consumer such as a
+ * motor gets a single config write. Groups are polled by the {@link TunableRegistry}, and only
+ * compare values after a NetworkTables change event under the group's key. During log replay there
+ * are no live events, so every poll compares values instead.
+ *
+ * <p>When {@link Constants#tuningMode} is false on construction, no dashboard entries are created,
+ * the group is not registered, and handles simply return their defaults.
+ *
+ * <pre>
+ * TunableGroup deadband = new TunableGroup("Intake/Deadband", () -> {});
+ * TunableGroup.NumberValue window = deadband.addNumber("Window", 0.1);
+ * ...
+ * Deadband.inDeadband(input, window.get());
+ * </pre>
+ */
+public class TunableGroup implements TunableRegistry.Tunable, AutoCloseable {
+  private static final String TABLE_KEY = "Tunables";
+  private static final int POLLS_PER_EVENT = 2; // dashboard inputs can lag an event by a loop
+
+  /** Where a group's values are published and read, the dashboard outside of tests */
+  interface Source {
+    DoubleSupplier addNumber(String key, double defaultValue);
+
+    BooleanSupplier addBoolean(String key, boolean defaultValue);
+
+    /**
+     * Calls back after any value under a key changes
+     *
+     * @param key group key
+     * @param onChange called on every change, from any thread
+     * @return handle for {@link #removeListener(int)}
+     */
+    int addListener(String key, Runnable onChange);
+
+    void removeListener(int handle);
+  }
+
+  /** AdvantageKit dashboard inputs, which are published under SmartDashboard */
+  static final Source DASHBOARD =
+      new Source() {
+        @Override
+        public DoubleSupplier addNumber(String key, double defaultValue) {
+          return new LoggedDashboardNumber(key, defaultValue)::get;
+        }
+
+        @Override
+        public BooleanSupplier addBoolean(String key, boolean defaultValue) {
+          return new LoggedDashboardBoolean(key, defaultValue)::get;
+        }
+
+        @Override
+        public int addListener(String key, Runnable onChange) {
+          return NetworkTableInstance.getDefault()
+              .addListener(
+                  new String[] {"/SmartDashboard/" + key + "/"},
+                  EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+                  event -> onChange.run());
+        }
+
+        @Override
+        public void removeListener(int handle) {
+          NetworkTableInstance.getDefault().removeListener(handle);
+        }
+      };
+
+  /** A tunable number */
+  public final class NumberValue {
+    private final DoubleSupplier entry;
+    private double value;
+
+    private NumberValue(String name, double defaultValue) {
+      this.value = defaultValue;
+      this.entry = enabled ? source.addNumber(key + "/" + name, defaultValue) : null;
+    }
+
+    private boolean refresh() {
+      double latest = entry.getAsDouble();
+      if (latest == value) return false;
+      value = latest;
+      return true;
+    }
+
+    public double get() {
+      return value;
+    }
+  }
+
+  /** A tunable boolean */
+  public final class BooleanValue {
+    private final BooleanSupplier entry;
+    private boolean value;
+
+    private BooleanValue(String name, boolean defaultValue) {
+      this.value = defaultValue;
+      this.entry = enabled ? source.addBoolean(key + "/" + name, defaultValue) : null;
+    }
+
+    private boolean refresh() {
+      boolean latest = entry.getAsBoolean();
+      if (latest == value) return false;
+      value = latest;
+      return true;
+    }
+
+    public boolean get() {
+      return value;
+    }
+  }
+
+  private final String key;
+  private final Runnable apply;
+  private final Source source;
+  private final boolean enabled;
+  private final List<NumberValue> numbers = new ArrayList<>();
+  private final List<BooleanValue> booleans = new ArrayList<>();
+  private final AtomicInteger pendingPolls = new AtomicInteger(POLLS_PER_EVENT);
+  private int listenerHandle = 0;
+
+  /**
+   * Creates a group and registers it with the {@link TunableRegistry}
+   *
+   * @param key dashboard key, values are published under {@code Tunables/<key>/<name>}
+   * @param apply called once after any number of values in the group change
+   */
+  public TunableGroup(String key, Runnable apply) {
+    this(TABLE_KEY + "/" + key, apply, DASHBOARD);
+  }
+
+  /**
+   * Creates a group under a full table key and registers it with the {@link TunableRegistry}
+   *
+   * @param tableKey dashboard key, values are published under {@code <tableKey>/<name>}
+   * @param apply called once after any number of values in the group change
+   * @param source where values are published and read
+   */
+  TunableGroup(String tableKey, Runnable apply, Source source) {
+    this.key = tableKey;
+    this.apply = apply;
+    this.source = source;
+    this.enabled = Constants.tuningMode;
+
+    if (enabled) {
+      if (!Logger.hasReplaySource()) {
+        listenerHandle = source.addListener(key, () -> pendingPolls.set(POLLS_PER_EVENT));
+      }
+      TunableRegistry.getInstance().register(this);
+    }
+  }
+
+  /**
+   * Adds a tunable number
+   *
+   * @param name name under the group key
+   * @param defaultValue value used until changed on the dashboard
+   * @return handle to read the value
+   */
+  public NumberValue addNumber(String name, double defaultValue) {
+    NumberValue number = new NumberValue(name, defaultValue);
+    numbers.add(number);
+    return number;
+  }
+
+  /**
+   * Adds a tunable boolean
+   *
+   * @param name name under the group key
+   * @param defaultValue value used until changed on the dashboard
+   * @return handle to read the value
+   */
+  public BooleanValue addBoolean(String name, boolean defaultValue) {
+    BooleanValue value = new BooleanValue(name, defaultValue);
+    booleans.add(value);
+    return value;
+  }
+
+  @Override
+  public boolean poll() {
+    if (!enabled) return false;
+    if (!Logger.hasReplaySource() && pendingPolls.get() <= 0) return false;
+    pendingPolls.decrementAndGet();
+
+    boolean changed = false;
+    for (int i = 0; i < numbers.size(); i++) {
+      changed |= numbers.get(i).refresh();
+    }
+    for (int i = 0; i < booleans.size(); i++) {
+      changed |= booleans.get(i).refresh();
+    }
+    if (changed) apply.run();
+    return changed;
+  }
+
+  /** Stops listening for changes and unregisters from the {@link TunableRegistry} */
+  @Override
+  public void close() {
+    if (!enabled) return;
+    if (listenerHandle != 0) {
+      source.removeListener(listenerHandle);
+      listenerHandle = 0;
+    }
+    TunableRegistry.getInstance().unregister(this);
+  }
+
+  /**
+   * Creates a group tuning a motor's supply current limit
+   *
+   * @param motor motor to tune
+   * @param key dashboard key
+   * @param limit default current limit in amps
+   * @return the group
+   */
+  public static TunableGroup currentLimit(CrewmateMotor motor, String key, int limit) {
+    NumberValue[] amps = new NumberValue[1];
+    TunableGroup group =
+        new TunableGroup(key, () -> motor.setCurrentLimit((int) Math.round(amps[0].get())));
+    amps[0] = group.addNumber("CurrentLimit", limit);
+    motor.setCurrentLimit(limit);
+    return group;
+  }
+
+  /**
+   * Creates a group tuning the motion profile used by profiled setpoints
+   *
+   * @param motor motor to tune
+   * @param key dashboard key
+   * @param maxVelocity default cruise velocity
+   * @param maxAcceleration default acceleration
+   * @return the group
+   */
+  public static TunableGroup motionProfile(
+      CrewmateMotor motor, String key, double maxVelocity, double maxAcceleration) {
+    NumberValue[] limits = new NumberValue[2];
+    TunableGroup group =
+        new TunableGroup(
+            key, () -> motor.setMotionProfileConstraints(limits[0].get(), limits[1].get()));
+    limits[0] = group.addNumber("MaxVelocity", maxVelocity);
+    limits[1] = group.addNumber("MaxAcceleration", maxAcceleration);
+    motor.setMotionProfileConstraints(maxVelocity, maxAcceleration);
+    return group;
+  }
+}
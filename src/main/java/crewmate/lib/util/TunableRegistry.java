@@ -0,0 +1,126 @@
+package crewmate.lib.util;
+
+import crewmate.lib.Library.Constants;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polls every registered tunable once per loop
+ *
+ * <p>Tunables register themselves instead of each hooking the command scheduler, so the dashboard
+ * is read once per tunable per loop no matter how many commands are running. Each tunable only
+ * pushes values that changed. Nothing is polled unless {@link Constants#tuningMode} is set.
+ */
+public final class TunableRegistry {
+  /** A value read from the dashboard and pushed to its consumer when it changes */
+  public interface Tunable {
+    /**
+     * Reads the dashboard and applies any change
+     *
+     * @return true if a change was applied
+     */
+    boolean poll();
+  }
+
+  private static final TunableRegistry instance = new TunableRegistry();
+
+  private final List<Tunable> tunables = new ArrayList<>();
+  private boolean bound = false;
+  private boolean managed = false;
+  private int lastChangeCount = 0;
+
+  private TunableRegistry() {}
+
+  public static TunableRegistry getInstance() {
+    return instance;
+  }
+
+  /**
+   * Adds a tunable to be polled, registering the same tunable twice has no effect
+   *
+   * @param tunable tunable to poll
+   */
+  public synchronized void register(Tunable tunable) {
+    if (!tunables.contains(tunable)) {
+      tunables.add(tunable);
+    }
+  }
+
+  /**
+   * Stops polling a tunable
+   *
+   * @param tunable tunable to remove
+   */
+  public synchronized void unregister(Tunable tunable) {
+    tunables.remove(tunable);
+  }
+
+  /**
+   * Polls every tunable once. Called automatically after {@link #bindToScheduler()}
+   *
+   * @return number of tunables that applied a change
+   */
+  public synchronized int update() {
+    if (!Constants.tuningMode) return 0;
+
+    int changes = 0;
+    for (int i = 0; i < tunables.size(); i++) {
+      if (tunables.get(i).poll()) changes++;
+    }
+    lastChangeCount = changes;
+    return changes;
+  }
+
+  /**
+   * Polls the registry once per command scheduler run. Only binds the first time it is called, and
+   * the binding does nothing while the registry is {@link #setManaged(boolean) managed}
+   */
+  public synchronized void bindToScheduler() {
+    if (bound) return;
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(this::updateFromScheduler);
+    bound = true;
+  }
+
+  /** Update run by the scheduler binding, skipped while another loop polls the registry */
+  synchronized int updateFromScheduler() {
+    return managed ? 0 : update();
+  }
+
+  /**
+   * Hands polling to another loop, such as {@link crewmate.lib.CrewmateCentral#addTunables()}, so
+   * tunables that also bound to the scheduler are not polled twice
+   *
+   * @param managed true if another loop calls {@link #update()}
+   */
+  public synchronized void setManaged(boolean managed) {
+    this.managed = managed;
+  }
+
+  public synchronized boolean isManaged() {
+    return managed;
+  }
+
+  /**
+   * Checks if a tunable is polled by the registry
+   *
+   * @param tunable tunable to look for
+   * @return true if registered
+   */
+  public synchronized boolean contains(Tunable tunable) {
+    return tunables.contains(tunable);
+  }
+
+  public synchronized int size() {
+    return tunables.size();
+  }
+
+  /**
+   * Number of tunables that applied a change in the last update
+   *
+   * @return changed tunables
+   */
+  public synchronized int getLastChangeCount() {
+    return lastChangeCount;
+  }
+}
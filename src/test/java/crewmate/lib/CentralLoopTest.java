@@ -0,0 +1,87 @@
+package crewmate.lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.CrewmateCentral.Phase;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CentralLoopTest {
+
+  @Test
+  void run_ComponentsAddedOutOfOrder_RunInPhaseOrder() {
+    CentralLoop central = new CentralLoop("Test", System::nanoTime);
+    List<String> order = new ArrayList<>();
+    central.add(Phase.TELEMETRY, "Telemetry", () -> order.add("Telemetry"));
+    central.add(Phase.INPUTS, "Inputs", () -> order.add("Inputs"));
+    central.add(Phase.TOGGLES, "Toggles", () -> order.add("Toggles"));
+    central.add(Phase.INPUTS, "MoreInputs", () -> order.add("MoreInputs"));
+
+    central.run();
+    assertEquals(List.of("Inputs", "MoreInputs", "Toggles", "Telemetry"), order);
+    assertEquals("MoreInputs", central.getName(1));
+    assertEquals(Phase.TELEMETRY, central.getPhase(3));
+  }
+
+  @Test
+  void run_TimedComponents_FillHistogramAndCountOverBudget() {
+    long[] now = {0};
+    CentralLoop central = new CentralLoop("Test", () -> now[0]);
+    central.add(Phase.INPUTS, "Fast", () -> now[0] += 15_000);
+    central.add(Phase.OUTPUTS, "Slow", () -> now[0] += 3_000_000);
+    central.setBudgetMs(2.0);
+
+    central.run();
+    central.run();
+    assertEquals(0.015, central.getLastMs(0), 1e-9);
+    assertEquals(3.0, central.getMaxMs(1), 1e-9);
+    assertEquals(2, central.getOverBudgetCount());
+    assertEquals(2, central.getLoopCount());
+
+    long[] bounds = CentralLoop.BUCKET_BOUNDS_MICROS;
+    long[] histogram = new long[bounds.length];
+    central.getHistogram(0, histogram);
+    assertEquals(2, histogram[1]);
+    central.getHistogram(1, histogram);
+    assertEquals(2, histogram[8]);
+
+    central.resetStatistics();
+    central.getHistogram(1, histogram);
+    assertEquals(0, histogram[8]);
+    assertEquals(0, central.getOverBudgetCount());
+  }
+
+  @Test
+  void add_DuplicateName_ThrowsIllegalArgumentException() {
+    CentralLoop central = new CentralLoop("Test", System::nanoTime);
+    central.add(Phase.INPUTS, "Drive", () -> {});
+    assertThrows(
+        IllegalArgumentException.class, () -> central.add(Phase.OUTPUTS, "Drive", () -> {}));
+  }
+
+  @Test
+  void add_ManyComponents_Grows() {
+    CentralLoop central = new CentralLoop("Test", System::nanoTime);
+    int[] runs = {0};
+    for (int i = 0; i < 20; i++) {
+      central.add(Phase.values()[i % 6], "Component" + i, () -> runs[0]++);
+    }
+    central.run();
+    assertEquals(20, central.size());
+    assertEquals(20, runs[0]);
+  }
+
+  @Test
+  void addOnce_CalledTwice_AddsOnce() {
+    CentralLoop central = new CentralLoop("Test", System::nanoTime);
+    int[] runs = {0};
+    assertTrue(central.addOnce(Phase.TUNABLES, "Tunables", () -> runs[0]++));
+    assertFalse(central.addOnce(Phase.TUNABLES, "Tunables", () -> runs[0]++));
+
+    central.run();
+    assertEquals(1, central.size());
+    assertEquals(Phase.TUNABLES, central.getPhase(0));
+    assertEquals(1, runs[0]);
+  }
+}
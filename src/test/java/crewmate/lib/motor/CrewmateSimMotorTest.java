@@ -0,0 +1,105 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import crewmate.lib.motor.MotorConfig.Type;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class CrewmateSimMotorTest {
+  private static final double DT = 0.02;
+
+  private static MotorConfig config(double p, double i, double d, boolean brake) {
+    return new MotorConfig(
+        1,
+        Type.BRUSHLESS,
+        Optional.empty(),
+        Optional.of(p),
+        Optional.of(i),
+        Optional.of(d),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.of(brake));
+  }
+
+  private static void run(CrewmateSimMotor sim, double seconds) {
+    sim.update((int) Math.round(seconds / DT), DT);
+  }
+
+  @Test
+  void setSetpoint_Position_Settles() {
+    CrewmateSimMotor sim = new CrewmateSimMotor(config(0.3, 0.0, 0.01, false));
+    sim.setSetpoint(10.0, ControlType.POSITION);
+    run(sim, 2.0);
+
+    assertEquals(10.0, sim.getPosition(), 0.1);
+    assertEquals(10.0, sim.getSetpoint());
+  }
+
+  @Test
+  void setSetpoint_Velocity_Settles() {
+    CrewmateSimMotor sim = new CrewmateSimMotor(config(5E-4, 2E-3, 0.0, false));
+    sim.setSetpoint(2000.0, ControlType.VELOCITY);
+    run(sim, 3.0);
+
+    assertEquals(2000.0, sim.getVelocity(), 50.0);
+  }
+
+  @Test
+  void setSetpoint_ProfiledPosition_FollowsConstraints() {
+    CrewmateSimMotor sim = new CrewmateSimMotor(config(0.3, 0.0, 0.01, false));
+    sim.setMotionProfileConstraints(20.0, 40.0);
+    sim.setSetpoint(10.0, ControlType.PROFILED_POSITION);
+
+    run(sim, 0.2);
+    // 0.2 s at 40 rot/s^2 covers 0.8 rotations, an unprofiled step goes much further
+    assertTrue(sim.getPosition() < 1.5);
+    run(sim, 2.0);
+    assertEquals(10.0, sim.getPosition(), 0.1);
+  }
+
+  @Test
+  void setSetpoint_ProfiledPositionWithoutConstraints_ActsAsPosition() {
+    CrewmateSimMotor sim = new CrewmateSimMotor(config(0.3, 0.0, 0.01, false));
+    sim.setSetpoint(10.0, ControlType.PROFILED_POSITION);
+    run(sim, 2.0);
+
+    assertEquals(10.0, sim.getPosition(), 0.1);
+  }
+
+  @Test
+  void set_CurrentLimited_LimitsCurrent() {
+    CrewmateSimMotor sim =
+        new CrewmateSimMotor(MotorConfig.motorBasic(1, Type.BRUSHLESS).setCurrentLimit(20));
+    sim.set(1.0);
+    sim.update(0.001);
+
+    assertEquals(20.0, sim.getCurrent(), 1.0);
+  }
+
+  @Test
+  void set_ZeroInBrake_StopsFasterThanCoast() {
+    CrewmateSimMotor brake = new CrewmateSimMotor(config(0.0, 0.0, 0.0, true));
+    CrewmateSimMotor coast = new CrewmateSimMotor(config(0.0, 0.0, 0.0, false));
+    brake.setState(0.0, 3000.0);
+    coast.setState(0.0, 3000.0);
+    brake.set(0.0);
+    coast.set(0.0);
+    run(brake, 0.5);
+    run(coast, 0.5);
+
+    assertEquals(3000.0, coast.getVelocity(), 1.0);
+    assertTrue(brake.getVelocity() < 1000.0);
+  }
+
+  @Test
+  void setState_ConversionFactor_ReportsScaledPosition() {
+    CrewmateSimMotor sim =
+        new CrewmateSimMotor(MotorConfig.motorBasicGearbox(1, Type.BRUSHLESS, 0.5));
+    sim.setState(4.0, 0.0);
+
+    assertEquals(4.0, sim.getPosition(), 1e-9);
+  }
+}
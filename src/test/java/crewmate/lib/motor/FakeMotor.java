@@ -0,0 +1,106 @@
+package crewmate.lib.motor;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+
+/** In-memory CrewmateMotor that records writes, for testing wrappers and tools */
+public class FakeMotor implements CrewmateMotor {
+  public int writes = 0;
+  public double output = 0.0;
+  public double voltage = 0.0;
+  public double setpoint = 0.0;
+  public ControlType controlType = null;
+
+  public double position = 0.0;
+  public double velocity = 0.0;
+  public double current = 0.0;
+
+  public double p = 0.0;
+  public double i = 0.0;
+  public double d = 0.0;
+  public int currentLimit = 0;
+  public boolean brakeMode = false;
+
+  @Override
+  public void set(double throttle) {
+    writes++;
+    output = throttle;
+  }
+
+  @Override
+  public void setVoltage(double voltage) {
+    writes++;
+    this.voltage = voltage;
+  }
+
+  @Override
+  public double getPosition() {
+    return position;
+  }
+
+  @Override
+  public double getVelocity() {
+    return velocity;
+  }
+
+  @Override
+  public double getCurrent() {
+    return current;
+  }
+
+  @Override
+  public Controller getControllerType() {
+    return Controller.SIM;
+  }
+
+  @Override
+  public void setP(double p) {
+    this.p = p;
+  }
+
+  @Override
+  public void setI(double i) {
+    this.i = i;
+  }
+
+  @Override
+  public void setD(double d) {
+    this.d = d;
+  }
+
+  @Override
+  public double getP() {
+    return p;
+  }
+
+  @Override
+  public double getI() {
+    return i;
+  }
+
+  @Override
+  public double getD() {
+    return d;
+  }
+
+  @Override
+  public void setSetpoint(double setpoint, ControlType controlType) {
+    writes++;
+    this.setpoint = setpoint;
+    this.controlType = controlType;
+  }
+
+  @Override
+  public double getSetpoint() {
+    return setpoint;
+  }
+
+  @Override
+  public void setCurrentLimit(int limit) {
+    this.currentLimit = limit;
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    this.brakeMode = brake;
+  }
+}
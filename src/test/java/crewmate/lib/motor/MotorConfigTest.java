@@ -0,0 +1,127 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class MotorConfigTest {
+
+  private static MotorConfig fullConfig() {
+    return MotorConfig.builder(7, MotorConfig.Type.BRUSHLESS)
+        .withCurrentLimit(35)
+        .withPID(0.1, 0.002, 0.03)
+        .withReversed(true)
+        .withPositionConversionFactor(0.5)
+        .withVelocityConversionFactor(0.5 / 60.0)
+        .withBrakeMode(true)
+        .build();
+  }
+
+  @Test
+  void builder_UnsetFields_AreNotPresent() {
+    MotorConfig config = MotorConfig.builder(3, MotorConfig.Type.BRUSHED).withP(1.0).build();
+
+    assertTrue(config.has(MotorConfig.P));
+    assertFalse(config.has(MotorConfig.I));
+    assertFalse(config.has(MotorConfig.CURRENT_LIMIT));
+    assertEquals(1.0, config.p);
+  }
+
+  @Test
+  void builder_ReusedAfterBuild_DoesNotChangeBuiltConfig() {
+    MotorConfig.Builder builder = MotorConfig.builder(3, MotorConfig.Type.BRUSHED).withP(1.0);
+    MotorConfig first = builder.build();
+    builder.withP(2.0);
+
+    assertEquals(1.0, first.p);
+  }
+
+  @Test
+  void optionalConstructor_SameValues_EqualsBuilder() {
+    MotorConfig legacy =
+        new MotorConfig(
+            7,
+            MotorConfig.Type.BRUSHLESS,
+            Optional.of(35),
+            Optional.of(0.1),
+            Optional.of(0.002),
+            Optional.of(0.03),
+            Optional.of(true),
+            Optional.of(0.5),
+            Optional.of(0.5 / 60.0),
+            Optional.of(true));
+
+    assertEquals(fullConfig(), legacy);
+    assertEquals(fullConfig().hashCode(), legacy.hashCode());
+  }
+
+  @Test
+  void differences_ChangedAndMissingFields_AreReported() {
+    MotorConfig a = fullConfig();
+    MotorConfig b = a.copy().setCurrentLimit(20);
+    MotorConfig c = MotorConfig.builder(7, MotorConfig.Type.BRUSHLESS).withP(0.1).build();
+
+    assertEquals(0, a.differences(a.copy()));
+    assertEquals(MotorConfig.CURRENT_LIMIT, a.differences(b));
+    assertNotEquals(a, b);
+    assertFalse(a.differences(c) == 0);
+    assertEquals(0, a.differences(c) & MotorConfig.P);
+  }
+
+  @Test
+  void toBytes_RoundTrip_PreservesConfig() {
+    MotorConfig config = fullConfig();
+    byte[] bytes = config.toBytes();
+
+    assertEquals(config.serializedSize(), bytes.length);
+    assertEquals(config, MotorConfig.fromBytes(bytes));
+  }
+
+  @Test
+  void toBytes_SparseConfig_IsSmallerThanFullConfig() {
+    MotorConfig sparse = MotorConfig.builder(1, MotorConfig.Type.BRUSHLESS).build();
+
+    assertTrue(sparse.toBytes().length < fullConfig().toBytes().length);
+    assertEquals(sparse, MotorConfig.fromBytes(sparse.toBytes()));
+  }
+
+  @Test
+  void writeTo_SeveralConfigs_ReadBackInOrder() {
+    MotorConfig a = fullConfig();
+    MotorConfig b = MotorConfig.motorBasic(2, MotorConfig.Type.BRUSHED);
+    ByteBuffer buffer = ByteBuffer.allocate(a.serializedSize() + b.serializedSize());
+    a.writeTo(buffer);
+    b.writeTo(buffer);
+    buffer.flip();
+
+    assertEquals(a, MotorConfig.readFrom(buffer));
+    assertEquals(b, MotorConfig.readFrom(buffer));
+  }
+
+  @Test
+  void readFrom_UnknownVersion_Throws() {
+    byte[] bytes = fullConfig().toBytes();
+    bytes[0] = 99;
+
+    assertThrows(IllegalArgumentException.class, () -> MotorConfig.fromBytes(bytes));
+  }
+
+  @Test
+  void readFrom_UnknownMotorType_Throws() {
+    byte[] bytes = fullConfig().toBytes();
+    bytes[5] = 7; // after the version byte and the int CAN ID
+
+    assertThrows(IllegalArgumentException.class, () -> MotorConfig.fromBytes(bytes));
+  }
+
+  @Test
+  void fromJson_NonNumericField_Throws() {
+    String json = "{\"canID\": 3, \"motorType\": \"BRUSHLESS\", \"currentLimit\": \"forty\"}";
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> MotorConfig.fromJson(json));
+    assertTrue(e.getMessage().contains("currentLimit"));
+  }
+}
@@ -0,0 +1,75 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.Type;
+import org.junit.jupiter.api.Test;
+
+class MotorGroupTest {
+
+  private static CrewmateSimMotor motor(double position, double velocity) {
+    CrewmateSimMotor motor = new CrewmateSimMotor(MotorConfig.motorBasic(1, Type.BRUSHLESS));
+    motor.setState(position, velocity);
+    return motor;
+  }
+
+  @Test
+  void refresh_NonTalonMotors_FillsIndexAlignedSnapshot() {
+    CrewmateSimMotor first = motor(1.0, 100.0);
+    CrewmateSimMotor second = motor(-2.0, -200.0);
+    double[] now = {12.5};
+    MotorGroup group = new MotorGroup(() -> now[0], first, second);
+    group.refresh();
+
+    assertEquals(2, group.size());
+    assertSame(second, group.getMotor(1));
+    assertArrayEquals(new double[] {1.0, -2.0}, group.getPositions(), 1e-9);
+    assertArrayEquals(new double[] {100.0, -200.0}, group.getVelocities(), 1e-9);
+    assertArrayEquals(new double[] {12.5, 12.5}, group.getTimestamps());
+    assertEquals(-2.0, group.getPosition(1), 1e-9);
+    assertEquals(100.0, group.getVelocity(0), 1e-9);
+    assertEquals(first.getCurrent(), group.getCurrent(0));
+  }
+
+  @Test
+  void refresh_Repeated_ReusesArraysWithNewValues() {
+    CrewmateSimMotor motor = motor(1.0, 0.0);
+    double[] now = {1.0};
+    MotorGroup group = new MotorGroup(() -> now[0], motor);
+    group.refresh();
+    double[] positions = group.getPositions();
+    double[] timestamps = group.getTimestamps();
+
+    motor.setState(3.0, 0.0);
+    now[0] = 1.02;
+    group.refresh();
+    assertSame(positions, group.getPositions());
+    assertSame(timestamps, group.getTimestamps());
+    assertEquals(3.0, positions[0], 1e-9);
+    assertEquals(1.02, timestamps[0]);
+  }
+
+  @Test
+  void enableSampleQueue_MotorWithoutQueue_QueuesInGroup() {
+    FakeMotor fake = new FakeMotor();
+    MotorGroup group = new MotorGroup(() -> 0.25, fake);
+    assertNull(fake.enableSampleQueue(4));
+
+    MotorSampleQueue queue = group.enableSampleQueue(0, 4);
+    assertNotNull(queue);
+    assertSame(queue, group.enableSampleQueue(0, 4));
+    assertSame(queue, group.getSampleQueue(0));
+
+    fake.position = 1.5;
+    fake.velocity = 2.5;
+    group.refresh();
+
+    double[] timestamps = new double[4];
+    double[] positions = new double[4];
+    double[] velocities = new double[4];
+    assertEquals(1, queue.drain(timestamps, positions, velocities));
+    assertEquals(0.25, timestamps[0]);
+    assertEquals(1.5, positions[0]);
+    assertEquals(2.5, velocities[0]);
+  }
+}
@@ -0,0 +1,46 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MotorHealthTest {
+
+  @Test
+  void recordError_Timeout_CountsBoth() {
+    MotorHealth health = new MotorHealth("Test/1");
+    health.recordError("kError", false);
+    health.recordError("kTimeout", true);
+
+    assertEquals(2, health.getErrorCount());
+    assertEquals(1, health.getTimeoutCount());
+    assertEquals("kTimeout", health.getLastError());
+  }
+
+  @Test
+  void recordStale_Repeated_IsCounted() {
+    MotorHealth health = new MotorHealth("Test/2");
+    health.recordStale();
+    health.recordStale();
+
+    assertEquals(2, health.getStaleCount());
+    assertEquals(0, health.getErrorCount());
+  }
+
+  @Test
+  void recordConfigApply_AfterStart_IsNotNegative() {
+    MotorHealth health = new MotorHealth("Test/3");
+    health.recordConfigApply(MotorHealth.start());
+
+    assertTrue(health.getLastConfigApplyMs() >= 0.0);
+  }
+
+  @Test
+  void close_Registered_Unregisters() {
+    MotorHealth health = new MotorHealth("Test/4");
+    assertTrue(health.isRegistered());
+
+    health.close();
+    assertFalse(health.isRegistered());
+  }
+}
@@ -0,0 +1,65 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MotorSampleQueueTest {
+  private final double[] timestamps = new double[8];
+  private final double[] positions = new double[8];
+  private final double[] velocities = new double[8];
+
+  @Test
+  void drain_AfterAdds_ReturnsSamplesOldestFirst() {
+    MotorSampleQueue queue = new MotorSampleQueue(4);
+    queue.add(0.01, 1.0, 10.0);
+    queue.add(0.02, 2.0, 20.0);
+
+    assertEquals(2, queue.drain(timestamps, positions, velocities));
+    assertEquals(0.01, timestamps[0]);
+    assertEquals(2.0, positions[1]);
+    assertEquals(20.0, velocities[1]);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void add_RepeatedTimestamp_IsIgnored() {
+    MotorSampleQueue queue = new MotorSampleQueue(4);
+
+    assertTrue(queue.add(0.01, 1.0, 0.0));
+    assertFalse(queue.add(0.01, 1.0, 0.0));
+    assertFalse(queue.add(0.005, 1.0, 0.0));
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  void add_PastCapacity_OverwritesOldest() {
+    MotorSampleQueue queue = new MotorSampleQueue(3);
+    for (int n = 1; n <= 5; n++) {
+      queue.add(n, n, 0.0);
+    }
+
+    assertEquals(2, queue.getDroppedCount());
+    assertEquals(3, queue.drain(timestamps, positions, velocities));
+    assertEquals(3.0, positions[0]);
+    assertEquals(5.0, positions[2]);
+  }
+
+  @Test
+  void drain_ShortArrays_LeavesRemainderQueued() {
+    MotorSampleQueue queue = new MotorSampleQueue(4);
+    for (int n = 1; n <= 4; n++) {
+      queue.add(n, n, 0.0);
+    }
+    double[] shortArray = new double[3];
+
+    assertEquals(3, queue.drain(shortArray, new double[3], new double[3]));
+    assertEquals(1, queue.drain(timestamps, positions, velocities));
+    assertEquals(4.0, timestamps[0]);
+  }
+
+  @Test
+  void constructor_ZeroCapacity_Throws() {
+    assertThrows(IllegalArgumentException.class, () -> new MotorSampleQueue(0));
+  }
+}
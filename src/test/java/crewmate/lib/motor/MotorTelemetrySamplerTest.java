@@ -0,0 +1,121 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class MotorTelemetrySamplerTest {
+
+  @Test
+  void read_NoSample_ReturnsEmptySample() {
+    MotorTelemetrySampler sampler = new MotorTelemetrySampler(() -> 0.0, new FakeMotor());
+    MotorTelemetrySampler.Sample sample = sampler.newSample();
+    sampler.read(sample);
+
+    assertEquals(0, sample.getSequence());
+    assertTrue(Double.isNaN(sample.getSampleTime()));
+    assertFalse(sampler.isRunning());
+  }
+
+  @Test
+  void sample_FakeMotors_PublishesIndexAlignedSample() {
+    FakeMotor first = new FakeMotor();
+    FakeMotor second = new FakeMotor();
+    double[] now = {1.0};
+    MotorTelemetrySampler sampler = new MotorTelemetrySampler(() -> now[0], first, second);
+    MotorTelemetrySampler.Sample sample = sampler.newSample();
+
+    first.position = 3.0;
+    second.velocity = -40.0;
+    second.current = 12.0;
+    sampler.sample();
+    now[0] = 1.5;
+    first.position = 4.0;
+    sampler.sample();
+    sampler.read(sample);
+
+    assertEquals(2, sampler.size());
+    assertEquals(2, sampler.getSequence());
+    assertEquals(2, sample.getSequence());
+    assertEquals(1.5, sample.getSampleTime());
+    assertEquals(4.0, sample.getPosition(0));
+    assertEquals(-40.0, sample.getVelocity(1));
+    assertEquals(12.0, sample.getCurrent(1));
+    assertEquals(1.5, sample.getTimestamp(1));
+  }
+
+  @Test
+  void read_DuringSample_ReturnsPreviousSample() {
+    MotorTelemetrySampler[] sampler = new MotorTelemetrySampler[1];
+    MotorTelemetrySampler.Sample[] inside = new MotorTelemetrySampler.Sample[1];
+    FakeMotor reading =
+        new FakeMotor() {
+          @Override
+          public double getCurrent() {
+            // Runs part way through a sampling pass, after this motor's position was written
+            if (inside[0] != null) sampler[0].read(inside[0]);
+            return current;
+          }
+        };
+    double[] now = {1.0};
+    sampler[0] = new MotorTelemetrySampler(() -> now[0], reading);
+
+    reading.position = 1.0;
+    sampler[0].sample();
+    inside[0] = sampler[0].newSample();
+    now[0] = 2.0;
+    reading.position = 2.0;
+    sampler[0].sample();
+
+    assertEquals(1, inside[0].getSequence());
+    assertEquals(1.0, inside[0].getPosition(0));
+    assertEquals(1.0, inside[0].getSampleTime());
+
+    MotorTelemetrySampler.Sample after = sampler[0].newSample();
+    sampler[0].read(after);
+    assertEquals(2, after.getSequence());
+    assertEquals(2.0, after.getPosition(0));
+  }
+
+  @Test
+  void read_ConcurrentSampling_ReturnsConsistentSamples() throws InterruptedException {
+    FakeMotor first = new FakeMotor();
+    FakeMotor second = new FakeMotor();
+    double[] now = {0.0};
+    MotorTelemetrySampler sampler = new MotorTelemetrySampler(() -> now[0], first, second);
+    AtomicBoolean done = new AtomicBoolean(false);
+
+    // Every field of a pass is written from the same counter, so a torn read shows as a mismatch
+    Thread writer =
+        new Thread(
+            () -> {
+              for (int i = 1; i <= 20000; i++) {
+                first.position = i;
+                second.position = i;
+                second.velocity = i;
+                now[0] = i;
+                sampler.sample();
+              }
+              done.set(true);
+            });
+    writer.start();
+
+    MotorTelemetrySampler.Sample sample = sampler.newSample();
+    long lastSequence = 0;
+    while (!done.get()) {
+      sampler.read(sample);
+      if (sample.getSequence() == 0) continue;
+      assertEquals(sample.getSequence(), (long) sample.getPosition(0));
+      assertEquals(sample.getPosition(0), sample.getPosition(1));
+      assertEquals(sample.getPosition(0), sample.getVelocity(1));
+      assertTrue(sample.getSequence() >= lastSequence);
+      lastSequence = sample.getSequence();
+    }
+    writer.join();
+
+    sampler.read(sample);
+    assertEquals(20000, sample.getSequence());
+    assertEquals(20000.0, sample.getSampleTime());
+  }
+}
@@ -0,0 +1,115 @@
+package crewmate.lib.motor;
+
+import java.util.function.DoublePredicate;
+
+/** FakeMotor driven by a simple mechanism model, for testing tools that run a motor over time */
+public abstract class PlantMotor extends FakeMotor {
+
+  /**
+   * Advances the model by one step from the last written output
+   *
+   * @param dt step length in seconds
+   */
+  public abstract void step(double dt);
+
+  /**
+   * Steps the model for as long as a tool keeps running
+   *
+   * @param update tool update taking the current time, returning false once finished
+   * @param dt step length in seconds
+   * @return time the tool finished at
+   */
+  public double run(DoublePredicate update, double dt) {
+    double time = 0.0;
+    while (update.test(time)) {
+      step(dt);
+      time += dt;
+    }
+    return time;
+  }
+
+  /** Ideal voltage driven mechanism following V = kS sign(v) + kV v + kA a */
+  public static class Friction extends PlantMotor {
+    public final double kS;
+    public final double kV;
+    public final double kA;
+
+    public Friction(double kS, double kV, double kA) {
+      this.kS = kS;
+      this.kV = kV;
+      this.kA = kA;
+    }
+
+    @Override
+    public void step(double dt) {
+      double net = voltage - kV * velocity;
+      if (velocity == 0.0 && Math.abs(net) <= kS) return; // held by static friction
+
+      double friction = kS * Math.signum(velocity != 0.0 ? velocity : net);
+      double next = velocity + (net - friction) / kA * dt;
+      // friction cannot push the mechanism backwards through zero
+      velocity = next * velocity < 0.0 && Math.abs(voltage) <= kS ? 0.0 : next;
+    }
+  }
+
+  /** Duty cycle driven velocity plant with two equal lags and a transport delay */
+  public static class DelayedLag extends PlantMotor {
+    public final double gain;
+    public final double tau;
+    public final double delay;
+
+    private final double[] delayed;
+    private int head = 0;
+    private double lag = 0.0;
+
+    /**
+     * Creates the plant
+     *
+     * @param gain steady state velocity per unit duty cycle
+     * @param tau time constant of each lag, in seconds
+     * @param delay transport delay, in seconds
+     * @param dt step length the plant will be run with, in seconds
+     */
+    public DelayedLag(double gain, double tau, double delay, double dt) {
+      this.gain = gain;
+      this.tau = tau;
+      this.delay = delay;
+      this.delayed = new double[(int) Math.round(delay / dt)];
+    }
+
+    @Override
+    public void step(double dt) {
+      double input = delayed[head];
+      delayed[head] = output;
+      head = (head + 1) % delayed.length;
+      lag += (gain * input - lag) / tau * dt;
+      velocity += (lag - velocity) / tau * dt;
+    }
+
+    /**
+     * Frequency where the plant phase reaches -180 degrees
+     *
+     * @return radians per second
+     */
+    public double ultimateFrequency() {
+      double low = 0.0;
+      double high = Math.PI / delay;
+      for (int n = 0; n < 60; n++) {
+        double w = (low + high) / 2.0;
+        if (w * delay + 2 * Math.atan(w * tau) < Math.PI) low = w;
+        else high = w;
+      }
+      return low;
+    }
+
+    /**
+     * Gain that puts the plant on the edge of stability under proportional control
+     *
+     * @return ultimate gain
+     */
+    public double ultimateGain() {
+      double w = ultimateFrequency();
+      return (1 + w * w * tau * tau) / gain;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimitedMotorTest {
+  private FakeMotor fake;
+  private double time;
+  private RateLimitedMotor motor;
+
+  @BeforeEach
+  void setup() {
+    fake = new FakeMotor();
+    time = 0.0;
+    motor = new RateLimitedMotor(fake, 0.01, 50.0, () -> time);
+  }
+
+  @Test
+  void set_SameValueRepeated_WritesOnce() {
+    for (int n = 0; n < 10; n++) {
+      time += 0.02;
+      motor.set(0.5);
+    }
+
+    assertEquals(1, fake.writes);
+    assertEquals(9, motor.getSuppressedCount());
+  }
+
+  @Test
+  void set_ChangeWithinEpsilon_IsSuppressed() {
+    motor.set(0.5);
+    time += 0.02;
+    motor.set(0.505);
+    time += 0.02;
+    motor.set(0.52);
+
+    assertEquals(2, fake.writes);
+    assertEquals(0.52, fake.output);
+  }
+
+  @Test
+  void set_SmallValueThenZero_AlwaysStops() {
+    motor.set(0.005);
+    time += 0.005;
+    motor.set(0.0);
+
+    assertEquals(2, fake.writes);
+    assertEquals(0.0, fake.output);
+  }
+
+  @Test
+  void set_LargeValueThenZeroWithinRateLimit_Stops() {
+    motor.set(0.8);
+    time += 0.005;
+    motor.set(0.0);
+
+    assertEquals(2, fake.writes);
+    assertEquals(0.0, fake.output);
+  }
+
+  @Test
+  void setVoltage_AfterDutyCycleWithinRateLimit_IsWritten() {
+    motor.set(0.5);
+    time += 0.005;
+    motor.setVoltage(3.0);
+
+    assertEquals(2, fake.writes);
+    assertEquals(3.0, fake.voltage);
+  }
+
+  @Test
+  void setSetpoint_ControlTypeChanges_IsWritten() {
+    motor.setSetpoint(1.0, ControlType.POSITION);
+    time += 0.005;
+    motor.setSetpoint(1.0, ControlType.VELOCITY);
+
+    assertEquals(2, fake.writes);
+    assertEquals(ControlType.VELOCITY, fake.controlType);
+  }
+
+  @Test
+  void set_FasterThanRateLimit_DefersUntilFlush() {
+    motor.set(0.1);
+    time += 0.005;
+    motor.set(0.2);
+
+    assertEquals(1, fake.writes);
+    assertEquals(0.1, fake.output);
+
+    assertFalse(motor.flush());
+    time += 0.02;
+    assertTrue(motor.flush());
+    assertEquals(2, fake.writes);
+    assertEquals(0.2, fake.output);
+  }
+
+  @Test
+  void flush_Coalescing_SendsOnlyLastWrite() {
+    motor.setCoalescing(true);
+    motor.set(0.1);
+    motor.setVoltage(3.0);
+    motor.setSetpoint(2.0, ControlType.POSITION);
+
+    assertEquals(0, fake.writes);
+    assertTrue(motor.flush());
+    assertEquals(1, fake.writes);
+    assertEquals(2.0, fake.setpoint);
+    assertEquals(2, motor.getSuppressedCount());
+  }
+
+  @Test
+  void flush_KeepAliveElapsed_ResendsUnchangedOutput() {
+    motor.setKeepAlivePeriod(0.1);
+    motor.set(0.5);
+    time += 0.05;
+    assertFalse(motor.flush());
+    time += 0.1;
+    assertTrue(motor.flush());
+
+    assertEquals(2, fake.writes);
+  }
+
+  @Test
+  void constructor_NonPositiveRate_Throws() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new RateLimitedMotor(fake, 0.0, 0.0, () -> time));
+  }
+}
@@ -0,0 +1,91 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import org.junit.jupiter.api.Test;
+
+class RelayAutoTunerTest {
+  private static final double DT = 0.001;
+
+  private static PlantMotor.DelayedLag plant() {
+    return new PlantMotor.DelayedLag(2.0, 0.1, 0.02, DT);
+  }
+
+  private static RelayAutoTuner run(PlantMotor plant, RelayAutoTuner tuner) {
+    tuner.start();
+    plant.run(tuner::update, DT);
+    return tuner;
+  }
+
+  @Test
+  void update_DelayedPlant_FindsUltimateGainAndPeriod() {
+    PlantMotor.DelayedLag plant = plant();
+    RelayAutoTuner tuner = run(plant, new RelayAutoTuner(plant, ControlType.VELOCITY, 0.0, 0.2));
+
+    double w = plant.ultimateFrequency();
+    double ku = plant.ultimateGain();
+    assertEquals(RelayAutoTuner.State.DONE, tuner.getState());
+    assertEquals(2 * Math.PI / w, tuner.getUltimatePeriod(), 0.15 * 2 * Math.PI / w);
+    assertEquals(ku, tuner.getUltimateGain(), 0.2 * ku);
+    assertEquals(0.0, plant.output);
+  }
+
+  @Test
+  void apply_Done_WritesRuleGains() {
+    PlantMotor plant = plant();
+    RelayAutoTuner tuner = new RelayAutoTuner(plant, ControlType.VELOCITY, 1.0, 0.2);
+    tuner.setBias(0.5);
+    tuner.setHysteresis(0.01);
+    tuner.setRule(RelayAutoTuner.Rule.ZIEGLER_NICHOLS);
+    run(plant, tuner).apply();
+
+    double ku = tuner.getUltimateGain();
+    double tu = tuner.getUltimatePeriod();
+    assertEquals(0.6 * ku, plant.p, 1e-9);
+    assertEquals(1.2 * ku / tu, plant.i, 1e-9);
+    assertEquals(0.075 * ku * tu, plant.d, 1e-9);
+  }
+
+  @Test
+  void update_NoResponse_FailsAfterTimeout() {
+    FakeMotor motor = new FakeMotor();
+    RelayAutoTuner tuner = new RelayAutoTuner(motor, ControlType.POSITION, 1.0, 0.2);
+    tuner.setTimeout(1.0);
+    tuner.start();
+
+    double time = 0.0;
+    while (tuner.update(time)) {
+      time += 0.02;
+    }
+    assertEquals(RelayAutoTuner.State.FAILED, tuner.getState());
+    assertEquals(0.0, motor.output);
+    assertThrows(IllegalStateException.class, tuner::apply);
+  }
+
+  @Test
+  void constructor_CurrentMeasurement_Throws() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RelayAutoTuner(new FakeMotor(), ControlType.CURRENT, 0.0, 0.2));
+  }
+
+  @Test
+  void runSimulated_SimMotorPosition_TunesStableLoop() {
+    CrewmateSimMotor sim =
+        new CrewmateSimMotor(MotorConfig.motorBasic(1, MotorConfig.Type.BRUSHLESS));
+    RelayAutoTuner tuner = new RelayAutoTuner(sim, ControlType.POSITION, 0.0, 0.2);
+    tuner.setHysteresis(0.05);
+    tuner.setRule(RelayAutoTuner.Rule.NO_OVERSHOOT);
+
+    assertTrue(tuner.runSimulated(sim, DT));
+    assertTrue(tuner.getUltimateGain() > 0.0);
+    assertTrue(tuner.getUltimatePeriod() > 0.0);
+
+    tuner.apply();
+    assertEquals(tuner.getP(), sim.getP(), 1e-9);
+    sim.setSetpoint(5.0, ControlType.POSITION);
+    sim.update(4000, DT);
+    assertEquals(5.0, sim.getPosition(), 0.05);
+  }
+}
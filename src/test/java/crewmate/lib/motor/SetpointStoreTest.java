@@ -0,0 +1,64 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import org.junit.jupiter.api.Test;
+
+class SetpointStoreTest {
+
+  @Test
+  void read_NothingSet_ReturnsDefaults() {
+    SetpointStore store = new SetpointStore();
+    SetpointStore.Snapshot snapshot = new SetpointStore.Snapshot();
+    store.read(snapshot);
+
+    assertEquals(0.0, store.get());
+    assertNull(snapshot.getControlType());
+    assertTrue(Double.isNaN(snapshot.getTimestamp()));
+    assertEquals(0, store.writeCount());
+  }
+
+  @Test
+  void read_AfterSet_ReturnsLatestWrite() {
+    SetpointStore store = new SetpointStore();
+    SetpointStore.Snapshot snapshot = new SetpointStore.Snapshot();
+    store.set(1.5, ControlType.POSITION, 2.0);
+    store.set(-3.0, ControlType.VELOCITY, 4.0);
+    store.read(snapshot);
+
+    assertEquals(-3.0, store.get());
+    assertEquals(-3.0, snapshot.getSetpoint());
+    assertEquals(ControlType.VELOCITY, snapshot.getControlType());
+    assertEquals(4.0, snapshot.getTimestamp());
+    assertEquals(2, store.writeCount());
+  }
+
+  @Test
+  void read_ConcurrentWriter_NeverTears() throws InterruptedException {
+    SetpointStore store = new SetpointStore();
+    int writes = 200_000;
+    Thread writer =
+        new Thread(
+            () -> {
+              for (int n = 1; n <= writes; n++) {
+                ControlType type = n % 2 == 0 ? ControlType.POSITION : ControlType.VELOCITY;
+                store.set(n, type, n * 2.0);
+              }
+            });
+    writer.start();
+
+    SetpointStore.Snapshot snapshot = new SetpointStore.Snapshot();
+    while (writer.isAlive()) {
+      store.read(snapshot);
+      if (snapshot.getControlType() == null) continue;
+      long n = (long) snapshot.getSetpoint();
+      assertEquals(n * 2.0, snapshot.getTimestamp());
+      assertEquals(
+          n % 2 == 0 ? ControlType.POSITION : ControlType.VELOCITY, snapshot.getControlType());
+    }
+    writer.join();
+
+    assertEquals(writes, store.writeCount());
+  }
+}
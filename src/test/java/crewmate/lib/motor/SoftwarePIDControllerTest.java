@@ -0,0 +1,168 @@
+package crewmate.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.MotorConfig.ControlType;
+import org.junit.jupiter.api.Test;
+
+class SoftwarePIDControllerTest {
+  private static final double DT = 0.02;
+
+  @Test
+  void calculate_ProportionalOnly_ScalesError() {
+    SoftwarePIDController pid = new SoftwarePIDController(0.5, 0.0, 0.0, DT);
+    assertEquals(0.5, pid.calculate(1.0, 2.0), 1e-9);
+    assertEquals(1.0, pid.calculate(0.0, 10.0), 1e-9);
+    assertEquals(-1.0, pid.calculate(10.0, 0.0), 1e-9);
+  }
+
+  @Test
+  void calculate_Saturated_HoldsIntegral() {
+    SoftwarePIDController pid = new SoftwarePIDController(1.0, 1.0, 0.0, DT);
+    for (int n = 0; n < 100; n++) {
+      pid.calculate(0.0, 5.0);
+    }
+    assertEquals(0.0, pid.getIntegral(), 1e-9);
+
+    pid.setAntiWindup(false);
+    for (int n = 0; n < 100; n++) {
+      pid.calculate(0.0, 5.0);
+    }
+    assertEquals(10.0, pid.getIntegral(), 1e-9);
+  }
+
+  @Test
+  void calculate_OutsideIZone_ClearsIntegral() {
+    SoftwarePIDController pid = new SoftwarePIDController(0.0, 1.0, 0.0, DT);
+    pid.setIZone(0.5);
+    pid.calculate(0.0, 0.25);
+    assertEquals(0.25 * DT, pid.getIntegral(), 1e-9);
+    pid.calculate(0.0, 1.0);
+    assertEquals(0.0, pid.getIntegral());
+  }
+
+  @Test
+  void calculate_DerivativeFilter_SpreadsStep() {
+    SoftwarePIDController raw = new SoftwarePIDController(0.0, 0.0, 0.01, DT);
+    SoftwarePIDController filtered = new SoftwarePIDController(0.0, 0.0, 0.01, DT);
+    filtered.setDerivativeFilter(DT);
+
+    raw.calculate(0.0, 0.0);
+    filtered.calculate(0.0, 0.0);
+    assertEquals(0.5, raw.calculate(-1.0, 0.0), 1e-9);
+    assertEquals(0.25, filtered.calculate(-1.0, 0.0), 1e-9);
+    assertEquals(0.0, raw.calculate(-1.0, 0.0), 1e-9);
+    assertEquals(0.125, filtered.calculate(-1.0, 0.0), 1e-9);
+  }
+
+  @Test
+  void calculate_Velocity_AddsFeedforward() {
+    SoftwarePIDController pid = new SoftwarePIDController(0.0, 0.0, 0.0, DT);
+    pid.setFeedforward(0.05, 0.1, 0.0);
+    assertEquals(0.35, pid.calculate(3.0, 3.0, ControlType.VELOCITY), 1e-9);
+    assertEquals(-0.35, pid.calculateVelocity(0.0, -3.0), 1e-9);
+  }
+
+  @Test
+  void calculate_Batch_MatchesSingleUpdates() {
+    SoftwarePIDController single = new SoftwarePIDController(0.3, 0.2, 0.01, DT);
+    SoftwarePIDController batch = new SoftwarePIDController(0.3, 0.2, 0.01, DT);
+    double[] measurements = {0.0, 0.1, 0.3, 0.6, 0.8};
+    double[] setpoints = {1.0, 1.0, 1.0, 1.0, 1.0};
+    double[] outputs = new double[5];
+
+    double last = batch.calculate(measurements, setpoints, outputs, 5, false);
+    for (int n = 0; n < 5; n++) {
+      assertEquals(single.calculate(measurements[n], setpoints[n]), outputs[n], 1e-12);
+    }
+    assertEquals(outputs[4], last);
+  }
+
+  @Test
+  void update_PositionSetpoint_WritesDutyCycle() {
+    FakeMotor fake = new FakeMotor();
+    double[] sensor = {0.0};
+    SoftwarePIDMotor motor =
+        new SoftwarePIDMotor(
+            fake,
+            new SoftwarePIDController(0.0, 0.0, 0.0, DT),
+            () -> sensor[0],
+            () -> 0.0,
+            () -> 0.0);
+
+    motor.setPID(0.2, 0.0, 0.0);
+    assertEquals(0.2, motor.getController().getP());
+    assertEquals(0.0, motor.update());
+    assertEquals(0, fake.writes);
+
+    motor.setSetpoint(2.0, ControlType.POSITION);
+    sensor[0] = 1.0;
+    assertEquals(0.2, motor.update(), 1e-9);
+    assertEquals(0.2, fake.output, 1e-9);
+
+    motor.set(0.0);
+    assertEquals(0.0, motor.update());
+    assertEquals(2, fake.writes);
+  }
+
+  @Test
+  void update_ProfiledPosition_FollowsProfile() {
+    FakeMotor fake = new FakeMotor();
+    double[] sensor = {0.0};
+    SoftwarePIDMotor motor =
+        new SoftwarePIDMotor(
+            fake,
+            new SoftwarePIDController(1.0, 0.0, 0.0, DT),
+            () -> sensor[0],
+            () -> 0.0,
+            () -> 0.0);
+
+    motor.setMotionProfileConstraints(1.0, 1.0);
+    motor.setSetpoint(10.0, ControlType.PROFILED_POSITION);
+    // The first step of a 1 unit/s^2 profile from rest moves far less than the 10 unit error
+    assertTrue(motor.update() < 0.01);
+    assertEquals(10.0, motor.getSetpoint());
+
+    SoftwarePIDMotor unprofiled =
+        new SoftwarePIDMotor(
+            fake,
+            new SoftwarePIDController(0.05, 0.0, 0.0, DT),
+            () -> sensor[0],
+            () -> 0.0,
+            () -> 0.0);
+    unprofiled.setSetpoint(10.0, ControlType.PROFILED_POSITION);
+    assertEquals(0.5, unprofiled.update(), 1e-9);
+  }
+
+  @Test
+  void readSetpoint_DelegatedSetpoint_RecordsControlType() {
+    FakeMotor fake = new FakeMotor();
+    SoftwarePIDMotor motor =
+        new SoftwarePIDMotor(
+            fake,
+            new SoftwarePIDController(0, 0, 0, DT),
+            fake::getPosition,
+            fake::getVelocity,
+            () -> 1.5);
+    motor.setSetpoint(0.3, ControlType.DUTYCYCLE);
+
+    SetpointStore.Snapshot snapshot = new SetpointStore.Snapshot();
+    motor.readSetpoint(snapshot);
+    assertEquals(0.3, snapshot.getSetpoint());
+    assertEquals(ControlType.DUTYCYCLE, snapshot.getControlType());
+    assertEquals(1.5, snapshot.getTimestamp());
+    assertEquals(0.3, fake.setpoint);
+  }
+
+  @Test
+  void enableSampleQueue_Wrapped_UsesMotorQueue() {
+    CrewmateSimMotor sim =
+        new CrewmateSimMotor(MotorConfig.motorBasic(1, MotorConfig.Type.BRUSHLESS));
+    SoftwarePIDMotor motor = new SoftwarePIDMotor(sim, new SoftwarePIDController(0, 0, 0, DT));
+
+    MotorSampleQueue queue = motor.enableSampleQueue(8);
+    assertNotNull(queue);
+    assertSame(sim.getSampleQueue(), queue);
+    assertSame(queue, motor.getSampleQueue());
+  }
+}
@@ -0,0 +1,36 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class BooleanActionTest {
+
+  @Test
+  void run_Default_AlternatesEveryLoop() {
+    int[] runs = {0, 0};
+    BooleanAction action = new BooleanAction(() -> runs[0]++, () -> runs[1]++, true, false);
+    action.run();
+    action.run();
+    action.run();
+    assertArrayEquals(new int[] {2, 1}, runs);
+  }
+
+  @Test
+  void run_ChangeOnly_RunsOnlyOnChange() {
+    int[] runs = {0, 0};
+    BooleanAction action = new BooleanAction(() -> runs[0]++, () -> runs[1]++, true, true);
+    action.run();
+    action.run();
+    action.set(false);
+    action.run();
+    action.run();
+    assertArrayEquals(new int[] {1, 1}, runs);
+
+    // Setting the applied state again is not a change
+    action.set(false);
+    action.run();
+    assertArrayEquals(new int[] {1, 1}, runs);
+    assertFalse(action.get());
+  }
+}
@@ -0,0 +1,53 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class DebouncedBooleanTest {
+
+  @Test
+  void update_RisingHeldForWindow_BecomesTrue() {
+    DebouncedBoolean debounced =
+        new DebouncedBoolean(null, 0.1, DebouncedBoolean.Type.RISING, null);
+    assertFalse(debounced.update(true, 0.0));
+    assertFalse(debounced.update(true, 0.05));
+    assertTrue(debounced.update(true, 0.1));
+    assertFalse(debounced.update(false, 0.12));
+  }
+
+  @Test
+  void update_Bounce_RestartsWindow() {
+    DebouncedBoolean debounced = new DebouncedBoolean(null, 0.1, DebouncedBoolean.Type.BOTH, null);
+    debounced.update(true, 0.0);
+    debounced.update(false, 0.05);
+    assertFalse(debounced.update(true, 0.1));
+    assertFalse(debounced.update(true, 0.15));
+    assertTrue(debounced.update(true, 0.2));
+    assertTrue(debounced.update(false, 0.25));
+    assertFalse(debounced.update(false, 0.4));
+  }
+
+  @Test
+  void getAsBoolean_SameTimestamp_IsStable() {
+    boolean[] input = {true};
+    double[] time = {0.0};
+    DebouncedBoolean debounced =
+        new DebouncedBoolean(() -> input[0], 0.1, DebouncedBoolean.Type.FALLING, () -> time[0]);
+    assertTrue(debounced.getAsBoolean());
+    input[0] = false;
+    time[0] = 0.05;
+    assertTrue(debounced.getAsBoolean());
+    assertTrue(debounced.getAsBoolean());
+    time[0] = 0.2;
+    assertFalse(debounced.getAsBoolean());
+    assertFalse(debounced.get());
+  }
+
+  @Test
+  void constructor_NegativeWindow_ThrowsIllegalArgumentException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new DebouncedBoolean(() -> true, -1.0, DebouncedBoolean.Type.BOTH, () -> 0.0));
+  }
+}
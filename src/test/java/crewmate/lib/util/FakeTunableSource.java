@@ -0,0 +1,72 @@
+package crewmate.lib.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/** In-memory dashboard for TunableGroup that fires change events like NetworkTables */
+class FakeTunableSource implements TunableGroup.Source {
+  final Map<String, Double> numbers = new HashMap<>();
+  final Map<String, Boolean> booleans = new HashMap<>();
+  final Map<Integer, String> listenerKeys = new HashMap<>();
+  private final Map<Integer, Runnable> listeners = new HashMap<>();
+  private int nextHandle = 1;
+
+  @Override
+  public DoubleSupplier addNumber(String key, double defaultValue) {
+    numbers.put(key, defaultValue);
+    return () -> numbers.get(key);
+  }
+
+  @Override
+  public BooleanSupplier addBoolean(String key, boolean defaultValue) {
+    booleans.put(key, defaultValue);
+    return () -> booleans.get(key);
+  }
+
+  @Override
+  public int addListener(String key, Runnable onChange) {
+    int handle = nextHandle++;
+    listenerKeys.put(handle, key);
+    listeners.put(handle, onChange);
+    return handle;
+  }
+
+  @Override
+  public void removeListener(int handle) {
+    listenerKeys.remove(handle);
+    listeners.remove(handle);
+  }
+
+  /** Changes a number without sending a change event */
+  void setQuietly(String key, double value) {
+    if (!numbers.containsKey(key)) {
+      throw new IllegalArgumentException("No number published at " + key);
+    }
+    numbers.put(key, value);
+  }
+
+  /** Changes a number and notifies the listeners under its key */
+  void set(String key, double value) {
+    setQuietly(key, value);
+    fire(key);
+  }
+
+  /** Changes a boolean and notifies the listeners under its key */
+  void set(String key, boolean value) {
+    if (!booleans.containsKey(key)) {
+      throw new IllegalArgumentException("No boolean published at " + key);
+    }
+    booleans.put(key, value);
+    fire(key);
+  }
+
+  private void fire(String key) {
+    for (Map.Entry<Integer, String> listener : listenerKeys.entrySet()) {
+      if (key.startsWith(listener.getValue() + "/")) {
+        listeners.get(listener.getKey()).run();
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.motor.CrewmateSimMotor;
+import crewmate.lib.motor.MotorConfig;
+import crewmate.lib.motor.PlantMotor;
+import edu.wpi.first.math.system.plant.DCMotor;
+import org.junit.jupiter.api.Test;
+
+class FeedforwardCharacterizerTest {
+  private static final double KS = 0.2;
+  private static final double KV = 2.0;
+  private static final double KA = 0.3;
+
+  private static PlantMotor.Friction plant() {
+    return new PlantMotor.Friction(KS, KV, KA);
+  }
+
+  private static FeedforwardCharacterizer run(PlantMotor plant, int capacity, double dt) {
+    FeedforwardCharacterizer characterizer = new FeedforwardCharacterizer(plant, capacity);
+    characterizer.start();
+    plant.run(characterizer::update, dt);
+    return characterizer;
+  }
+
+  @Test
+  void fit_IdealMechanism_RecoversGains() {
+    FeedforwardCharacterizer characterizer = run(plant(), 20_000, 0.001);
+
+    assertTrue(characterizer.fit());
+    assertEquals(KS, characterizer.getKs(), 0.02);
+    assertEquals(KV, characterizer.getKv(), 0.02);
+    assertEquals(KA, characterizer.getKa(), 0.02);
+    assertTrue(characterizer.getRSquared() > 0.99);
+    assertEquals(0, characterizer.getDroppedCount());
+  }
+
+  @Test
+  void update_FullRoutine_EndsDoneAndStopped() {
+    PlantMotor plant = plant();
+    FeedforwardCharacterizer characterizer = run(plant, 20_000, 0.005);
+
+    assertEquals(FeedforwardCharacterizer.Phase.DONE, characterizer.getPhase());
+    assertEquals(0.0, plant.voltage);
+    assertFalse(characterizer.update(100.0));
+  }
+
+  @Test
+  void update_SmallBuffer_CountsDroppedSamples() {
+    FeedforwardCharacterizer characterizer = run(plant(), 100, 0.005);
+
+    assertEquals(100, characterizer.getSampleCount());
+    assertTrue(characterizer.getDroppedCount() > 0);
+  }
+
+  @Test
+  void fit_NoSamples_ReturnsFalse() {
+    FeedforwardCharacterizer characterizer = new FeedforwardCharacterizer(plant(), 10);
+
+    assertFalse(characterizer.fit());
+  }
+
+  @Test
+  void runSimulated_SimMotor_RecoversMotorModel() {
+    DCMotor neo = DCMotor.getNEO(1);
+    double j = 0.005;
+    CrewmateSimMotor sim =
+        new CrewmateSimMotor(
+            MotorConfig.builder(1, MotorConfig.Type.BRUSHLESS).withBrakeMode(true).build(),
+            neo,
+            1.0,
+            j);
+    FeedforwardCharacterizer characterizer = new FeedforwardCharacterizer(sim, 20_000);
+
+    assertTrue(characterizer.runSimulated(sim, 0.005));
+    // The sim reports RPM, the ideal motor has no static friction
+    double radPerSecPerRpm = 2.0 * Math.PI / 60.0;
+    double kv = radPerSecPerRpm / neo.KvRadPerSecPerVolt;
+    double ka = radPerSecPerRpm * neo.rOhms * j / neo.KtNMPerAmp;
+    assertEquals(0.0, characterizer.getKs(), 0.05);
+    assertEquals(kv, characterizer.getKv(), 0.02 * kv);
+    assertEquals(ka, characterizer.getKa(), 0.1 * ka);
+  }
+}
@@ -0,0 +1,32 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HysteresisBooleanTest {
+
+  @Test
+  void update_BetweenThresholds_HoldsValue() {
+    HysteresisBoolean filter = new HysteresisBoolean(null, 1.0, 2.0);
+    assertFalse(filter.update(1.5));
+    assertTrue(filter.update(2.5));
+    assertTrue(filter.update(1.5));
+    assertTrue(filter.update(1.0));
+    assertFalse(filter.update(0.5));
+  }
+
+  @Test
+  void getAsBoolean_SamplesInput() {
+    double[] value = {3.0};
+    HysteresisBoolean filter = new HysteresisBoolean(() -> value[0], 1.0, 2.0);
+    assertTrue(filter.getAsBoolean());
+    value[0] = 0.0;
+    assertFalse(filter.getAsBoolean());
+  }
+
+  @Test
+  void constructor_LowAboveHigh_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> new HysteresisBoolean(() -> 0.0, 2.0, 1.0));
+  }
+}
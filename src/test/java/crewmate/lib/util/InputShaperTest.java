@@ -0,0 +1,96 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class InputShaperTest {
+
+  @Test
+  void apply_Deadband_ZeroesInsideAndRescalesOutside() {
+    InputShaper shaper = InputShaper.builder(1).deadband(0, 0.2).build();
+    double[] axes = {0.1};
+    shaper.apply(axes, 0.02);
+    assertEquals(0.0, axes[0]);
+
+    axes[0] = -0.6;
+    shaper.apply(axes, 0.02);
+    assertEquals(-0.5, axes[0], 1e-9);
+
+    axes[0] = 1.0;
+    shaper.apply(axes, 0.02);
+    assertEquals(1.0, axes[0], 1e-9);
+  }
+
+  @Test
+  void apply_RadialDeadband_KeepsDirection() {
+    InputShaper shaper = InputShaper.builder(2).radialDeadband(0, 1, 0.5).build();
+    double[] axes = {0.3, 0.3};
+    shaper.apply(axes, 0.02);
+    assertArrayEquals(new double[] {0.0, 0.0}, axes);
+
+    axes[0] = 0.6;
+    axes[1] = 0.8;
+    shaper.apply(axes, 0.02);
+    assertEquals(0.6, axes[0], 1e-9);
+    assertEquals(0.8, axes[1], 1e-9);
+
+    axes[0] = 0.0;
+    axes[1] = -0.75;
+    shaper.apply(axes, 0.02);
+    assertEquals(0.0, axes[0], 1e-9);
+    assertEquals(-0.5, axes[1], 1e-9);
+  }
+
+  @Test
+  void apply_Curve_KeepsSign() {
+    InputShaper shaper = InputShaper.builder(2).curve(0, 2.0).curve(1, 3.0).build();
+    double[] axes = {-0.5, -0.5};
+    shaper.apply(axes, 0.02);
+    assertEquals(-0.25, axes[0], 1e-9);
+    assertEquals(-0.125, axes[1], 1e-9);
+  }
+
+  @Test
+  void apply_SlewLimit_LimitsChangePerSecond() {
+    InputShaper shaper = InputShaper.builder(1).slewLimit(0, 2.0).build();
+    double[] axes = {1.0};
+    shaper.apply(axes, 0.1);
+    assertEquals(0.2, axes[0], 1e-9);
+
+    axes[0] = 1.0;
+    shaper.apply(axes, 0.1);
+    assertEquals(0.4, axes[0], 1e-9);
+
+    shaper.reset();
+    axes[0] = -1.0;
+    shaper.apply(axes, 0.1);
+    assertEquals(-0.2, axes[0], 1e-9);
+  }
+
+  @Test
+  void apply_StagesRunInOrder() {
+    InputShaper shaper =
+        InputShaper.builder(2).scale(1, 3.0).clamp(1, 1.0).deadband(0, 0.5).build();
+    double[] axes = {0.75, 0.5};
+    shaper.apply(axes, 0.02);
+    assertEquals(0.5, axes[0], 1e-9);
+    assertEquals(1.0, axes[1], 1e-9);
+    assertEquals(3, shaper.getStageCount());
+  }
+
+  @Test
+  void builder_InvalidStage_ThrowsIllegalArgumentException() {
+    InputShaper.Builder builder = InputShaper.builder(2);
+    assertThrows(IllegalArgumentException.class, () -> builder.deadband(0, -0.1));
+    assertThrows(IllegalArgumentException.class, () -> builder.deadband(2, 0.1));
+    assertThrows(IllegalArgumentException.class, () -> builder.radialDeadband(0, 0, 0.1));
+    assertThrows(IllegalArgumentException.class, () -> builder.slewLimit(0, 0.0));
+  }
+
+  @Test
+  void apply_TooFewAxes_ThrowsIllegalArgumentException() {
+    InputShaper shaper = InputShaper.builder(3).build();
+    assertThrows(IllegalArgumentException.class, () -> shaper.apply(new double[2], 0.02));
+  }
+}
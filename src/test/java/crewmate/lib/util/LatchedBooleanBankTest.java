@@ -0,0 +1,62 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatchedBooleanBankTest {
+
+  @Test
+  void update_MixedInputs_ReturnsRisingAndTracksFalling() {
+    LatchedBooleanBank bank = new LatchedBooleanBank(64);
+    assertEquals(0b0101L, bank.update(0b0101L));
+    assertEquals(0b0010L, bank.update(0b0110L));
+    assertEquals(0b0001L, bank.getFalling(0));
+    assertEquals(0b0011L, bank.getChanged(0));
+    assertTrue(bank.isRising(1));
+    assertTrue(bank.isFalling(0));
+    assertTrue(bank.get(2));
+    assertFalse(bank.isRising(2));
+  }
+
+  @Test
+  void update_PartialWord_IgnoresUnusedBits() {
+    LatchedBooleanBank bank = new LatchedBooleanBank(70);
+    assertEquals(2, bank.getWordCount());
+    bank.update(new long[] {1L << 63, -1L});
+    assertTrue(bank.isRising(63));
+    assertEquals(0b111111L, bank.getRising(1));
+    assertTrue(bank.isRising(69));
+  }
+
+  @Test
+  void update_Debounced_IgnoresBounce() {
+    LatchedBooleanBank bank = new LatchedBooleanBank(8);
+    bank.setDebounce(3);
+    assertEquals(0L, bank.update(1L));
+    assertEquals(0L, bank.update(0L));
+    assertEquals(0L, bank.update(1L));
+    assertEquals(0L, bank.update(1L));
+    assertEquals(1L, bank.update(1L));
+
+    bank.update(0L);
+    bank.update(0L);
+    assertEquals(0L, bank.getFalling(0));
+    assertTrue(bank.get(0));
+    bank.update(0L);
+    assertEquals(1L, bank.getFalling(0));
+  }
+
+  @Test
+  void unlatch_ClearsState() {
+    LatchedBooleanBank bank = new LatchedBooleanBank(8);
+    bank.update(0b11L);
+    bank.unlatch();
+    assertEquals(0b11L, bank.update(0b11L));
+  }
+
+  @Test
+  void constructor_NoSignals_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> new LatchedBooleanBank(0));
+  }
+}
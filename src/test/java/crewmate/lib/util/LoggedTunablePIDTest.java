@@ -0,0 +1,60 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.Library;
+import crewmate.lib.motor.FakeMotor;
+import org.junit.jupiter.api.Test;
+
+class LoggedTunablePIDTest {
+
+  @Test
+  void initDefault_NotTuningMode_WritesDefaultsOnce() {
+    FakeMotor motor = new FakeMotor();
+    LoggedTunablePID pid = new LoggedTunablePID(motor, "Arm");
+    assertFalse(pid.UpdateIfChanged());
+    assertNull(pid.getGroup());
+
+    pid.initDefault(1.0, 0.1, 0.01);
+    pid.initDefault(2.0, 0.2, 0.02);
+    assertEquals(1.0, motor.p);
+    assertEquals(0.1, motor.i);
+    assertEquals(0.01, motor.d);
+    assertFalse(pid.poll());
+    assertFalse(TunableRegistry.getInstance().contains(pid.getGroup()));
+  }
+
+  @Test
+  void updatePID_NotTuningMode_RewritesDefaults() {
+    FakeMotor motor = new FakeMotor();
+    LoggedTunablePID pid = new LoggedTunablePID(motor, "Wrist", 0.5, 0.0, 0.0);
+    motor.setPID(0.0, 0.0, 0.0);
+
+    pid.updatePID();
+    assertEquals(0.5, motor.p);
+  }
+
+  @Test
+  void poll_TuningModeChangeEvent_WritesGainsUnderTunablePID() {
+    FakeMotor motor = new FakeMotor();
+    FakeTunableSource source = new FakeTunableSource();
+
+    Library.tuningMode(true);
+    LoggedTunablePID pid = new LoggedTunablePID(motor, "Arm", source);
+    try {
+      pid.initDefault(1.0, 0.0, 0.0);
+      assertTrue(source.numbers.containsKey("TunablePID/Arm/kP"));
+      assertTrue(source.numbers.containsKey("TunablePID/Arm/kD"));
+
+      source.set("TunablePID/Arm/kP", 2.0);
+      source.set("TunablePID/Arm/kD", 0.3);
+      assertTrue(pid.poll());
+      assertEquals(2.0, motor.p);
+      assertEquals(0.0, motor.i);
+      assertEquals(0.3, motor.d);
+    } finally {
+      Library.tuningMode(false);
+      pid.getGroup().close();
+    }
+  }
+}
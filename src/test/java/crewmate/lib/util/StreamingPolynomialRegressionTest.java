@@ -0,0 +1,112 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.util.StreamingPolynomialRegression.Basis;
+import org.junit.jupiter.api.Test;
+
+class StreamingPolynomialRegressionTest {
+
+  @Test
+  void testPredictWithDegree1() {
+    double[] x = {1, 2, 3, 4, 5};
+    double[] y = {2, 4, 6, 8, 10};
+    StreamingPolynomialRegression regression =
+        StreamingPolynomialRegression.fit(x, y, 1, Basis.MONOMIAL);
+    assertEquals(12, regression.predict(6), 0.001);
+    assertEquals(2, regression.beta(1), 1E-9);
+  }
+
+  @Test
+  void testPredictWithDegree2() {
+    double[] x = {1, 2, 3, 4, 5};
+    double[] y = {1, 4, 9, 16, 25};
+    StreamingPolynomialRegression regression =
+        StreamingPolynomialRegression.fit(x, y, 2, Basis.CHEBYSHEV);
+    assertEquals(36, regression.predict(6), 0.001);
+    assertEquals(1.0, regression.R2(), 1E-9);
+  }
+
+  @Test
+  void testLargePredictorKeepsDegree() {
+    StreamingPolynomialRegression regression =
+        new StreamingPolynomialRegression(3, 10000, 11000, Basis.CHEBYSHEV);
+    for (int i = 0; i <= 1000; i++) {
+      double x = 10000 + i;
+      regression.add(x, cubic(x));
+    }
+    assertEquals(3, regression.degree());
+    assertEquals(cubic(10500), regression.predict(10500), 1E-3);
+  }
+
+  @Test
+  void testChunkedMatchesSingleChunk() {
+    double[] x = new double[100];
+    double[] y = new double[100];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = i * 0.1;
+      y[i] = Math.sin(x[i]);
+    }
+    StreamingPolynomialRegression whole =
+        new StreamingPolynomialRegression(4, 0, 10, Basis.CHEBYSHEV);
+    whole.addAll(x, y);
+    StreamingPolynomialRegression chunked =
+        new StreamingPolynomialRegression(4, 0, 10, Basis.CHEBYSHEV);
+    for (int offset = 0; offset < x.length; offset += 30) {
+      chunked.addAll(x, y, offset, Math.min(30, x.length - offset));
+    }
+    assertEquals(whole.count(), chunked.count());
+    assertEquals(whole.predict(5.05), chunked.predict(5.05), 1E-9);
+    assertEquals(whole.R2(), chunked.R2(), 1E-9);
+  }
+
+  @Test
+  void testTooFewPointsReducesDegree() {
+    double[] x = {1, 2};
+    double[] y = {1, 3};
+    StreamingPolynomialRegression regression =
+        StreamingPolynomialRegression.fit(x, y, 3, Basis.CHEBYSHEV);
+    assertEquals(1, regression.degree());
+    assertEquals(3, regression.requestedDegree());
+    assertEquals(5, regression.predict(3), 1E-9);
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new StreamingPolynomialRegression(0, 0, 1, Basis.MONOMIAL));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new StreamingPolynomialRegression(2, 1, 1, Basis.MONOMIAL));
+    double[] empty = {};
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> StreamingPolynomialRegression.fit(empty, empty, 1, Basis.MONOMIAL));
+    assertThrows(
+        IllegalStateException.class,
+        () -> new StreamingPolynomialRegression(2, 0, 1, Basis.MONOMIAL).predict(0));
+  }
+
+  @Test
+  void testAddAllRegionOutsideArrays() {
+    StreamingPolynomialRegression regression =
+        new StreamingPolynomialRegression(1, 0, 10, Basis.MONOMIAL);
+    double[] x = {1, 2, 3, 4};
+    double[] y = {2, 4, 6};
+    assertThrows(IllegalArgumentException.class, () -> regression.addAll(x, y, 1, 3));
+    assertThrows(IllegalArgumentException.class, () -> regression.addAll(x, y, -1, 2));
+    assertThrows(IllegalArgumentException.class, () -> regression.addAll(x, y, 0, -1));
+    assertThrows(
+        IllegalArgumentException.class, () -> regression.addAll(x, y, 2, Integer.MAX_VALUE));
+
+    // Nothing was added by the rejected calls
+    assertThrows(IllegalStateException.class, () -> regression.predict(0));
+    regression.addAll(x, y, 0, 3);
+    assertEquals(8, regression.predict(4), 1E-9);
+  }
+
+  private static double cubic(double x) {
+    return 1E-6 * x * x * x - 0.02 * x * x + 3 * x + 7;
+  }
+}
@@ -0,0 +1,63 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ToggleListTest {
+
+  @Test
+  void update_ManualToggle_RunsOnlyOnChange() {
+    ToggleList group = new ToggleList();
+    int[] runs = {0, 0};
+    ToggleGroup.Toggle toggle = group.add(() -> runs[0]++, () -> runs[1]++, false);
+
+    assertEquals(1, group.update());
+    assertEquals(0, group.update());
+    assertArrayEquals(new int[] {0, 1}, runs);
+
+    toggle.toggle();
+    group.update();
+    group.update();
+    assertArrayEquals(new int[] {1, 1}, runs);
+
+    toggle.set(true);
+    assertEquals(0, group.update());
+    assertEquals(0, group.getLastChangeCount());
+  }
+
+  @Test
+  void update_Following_RunsOnConditionEdges() {
+    ToggleList group = new ToggleList();
+    boolean[] condition = {false};
+    int[] runs = {0, 0};
+    group.addFollowing(() -> condition[0], () -> runs[0]++, () -> runs[1]++);
+
+    group.update();
+    condition[0] = true;
+    group.update();
+    group.update();
+    condition[0] = false;
+    group.update();
+    assertArrayEquals(new int[] {1, 2}, runs);
+  }
+
+  @Test
+  void update_FlipOnRising_FlipsOncePerPress() {
+    ToggleList group = new ToggleList();
+    boolean[] button = {false};
+    ToggleGroup.Toggle toggle = group.addFlipOnRising(() -> button[0], () -> {}, () -> {}, false);
+
+    group.update();
+    button[0] = true;
+    group.update();
+    group.update();
+    assertTrue(toggle.get());
+    button[0] = false;
+    group.update();
+    button[0] = true;
+    group.update();
+    assertFalse(toggle.get());
+    assertEquals(1, group.size());
+  }
+}
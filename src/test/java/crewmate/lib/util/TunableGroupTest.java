@@ -0,0 +1,100 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.Library;
+import crewmate.lib.motor.FakeMotor;
+import org.junit.jupiter.api.Test;
+
+class TunableGroupTest {
+
+  @Test
+  void addNumber_NotTuningMode_ReturnsDefault() {
+    TunableGroup group = new TunableGroup("Test", () -> fail("nothing should be applied"));
+    TunableGroup.NumberValue window = group.addNumber("Window", 0.1);
+    TunableGroup.BooleanValue enabled = group.addBoolean("Enabled", true);
+
+    assertEquals(0.1, window.get());
+    assertTrue(enabled.get());
+    assertFalse(group.poll());
+    assertFalse(TunableRegistry.getInstance().contains(group));
+  }
+
+  @Test
+  void currentLimit_NotTuningMode_WritesDefaultOnce() {
+    FakeMotor motor = new FakeMotor();
+    TunableGroup group = TunableGroup.currentLimit(motor, "Arm", 30);
+
+    assertEquals(30, motor.currentLimit);
+    assertFalse(group.poll());
+  }
+
+  @Test
+  void poll_ChangeEvents_AppliesOnceWithEveryValue() {
+    FakeTunableSource source = new FakeTunableSource();
+    double[] applied = new double[2];
+    int[] applies = {0};
+    TunableGroup.NumberValue[] values = new TunableGroup.NumberValue[2];
+
+    Library.tuningMode(true);
+    TunableGroup group =
+        new TunableGroup(
+            "Arm/Limits",
+            () -> {
+              applies[0]++;
+              applied[0] = values[0].get();
+              applied[1] = values[1].get();
+            },
+            source);
+    try {
+      values[0] = group.addNumber("Min", 0.0);
+      values[1] = group.addNumber("Max", 1.0);
+      assertEquals("Arm/Limits", source.listenerKeys.values().iterator().next());
+      assertTrue(source.numbers.containsKey("Arm/Limits/Min"));
+      assertTrue(TunableRegistry.getInstance().contains(group));
+
+      source.set("Arm/Limits/Min", -0.5);
+      source.set("Arm/Limits/Max", 0.5);
+      assertTrue(group.poll());
+      assertFalse(group.poll());
+
+      assertEquals(1, applies[0]);
+      assertArrayEquals(new double[] {-0.5, 0.5}, applied);
+    } finally {
+      Library.tuningMode(false);
+      group.close();
+    }
+    assertTrue(source.listenerKeys.isEmpty());
+    assertFalse(TunableRegistry.getInstance().contains(group));
+  }
+
+  @Test
+  void poll_NoChangeEvent_ComparesNothing() {
+    FakeTunableSource source = new FakeTunableSource();
+    int[] applies = {0};
+
+    Library.tuningMode(true);
+    TunableGroup group = new TunableGroup("Shooter", () -> applies[0]++, source);
+    try {
+      TunableGroup.NumberValue speed = group.addNumber("Speed", 3000.0);
+      TunableGroup.BooleanValue enabled = group.addBoolean("Enabled", false);
+      // Polls right after construction compare values in case the dashboard already differs
+      assertFalse(group.poll());
+      assertFalse(group.poll());
+
+      source.setQuietly("Shooter/Speed", 3500.0);
+      assertFalse(group.poll());
+      assertEquals(3000.0, speed.get());
+
+      // Any event under the group's key picks up every pending change
+      source.set("Shooter/Enabled", true);
+      assertTrue(group.poll());
+      assertEquals(3500.0, speed.get());
+      assertTrue(enabled.get());
+      assertEquals(1, applies[0]);
+    } finally {
+      Library.tuningMode(false);
+      group.close();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package crewmate.lib.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import crewmate.lib.Library;
+import org.junit.jupiter.api.Test;
+
+class TunableRegistryTest {
+
+  private static class CountingTunable implements TunableRegistry.Tunable {
+    int polls = 0;
+    boolean changed = false;
+
+    @Override
+    public boolean poll() {
+      polls++;
+      return changed;
+    }
+  }
+
+  @Test
+  void update_TuningMode_PollsEachTunableOnce() {
+    TunableRegistry registry = TunableRegistry.getInstance();
+    CountingTunable a = new CountingTunable();
+    CountingTunable b = new CountingTunable();
+    b.changed = true;
+    registry.register(a);
+    registry.register(a);
+    registry.register(b);
+
+    Library.tuningMode(true);
+    try {
+      assertEquals(1, registry.update());
+      assertEquals(1, a.polls);
+      assertEquals(1, b.polls);
+      assertEquals(1, registry.getLastChangeCount());
+    } finally {
+      Library.tuningMode(false);
+      registry.unregister(a);
+      registry.unregister(b);
+    }
+  }
+
+  @Test
+  void update_NotTuningMode_PollsNothing() {
+    TunableRegistry registry = TunableRegistry.getInstance();
+    CountingTunable tunable = new CountingTunable();
+    registry.register(tunable);
+
+    try {
+      assertEquals(0, registry.update());
+      assertEquals(0, tunable.polls);
+    } finally {
+      registry.unregister(tunable);
+    }
+  }
+
+  @Test
+  void updateFromScheduler_Managed_PollsNothing() {
+    TunableRegistry registry = TunableRegistry.getInstance();
+    CountingTunable tunable = new CountingTunable();
+    registry.register(tunable);
+
+    Library.tuningMode(true);
+    try {
+      registry.updateFromScheduler();
+      registry.setManaged(true);
+      registry.updateFromScheduler();
+      registry.update();
+      assertEquals(2, tunable.polls);
+    } finally {
+      Library.tuningMode(false);
+      registry.setManaged(false);
+      registry.unregister(tunable);
+    }
+  }
+}